@@ -2,6 +2,8 @@ package com.caij.app.startup;
 
 import android.app.Application;
 
+import java.io.File;
+
 public class App extends Application {
 
     @Override
@@ -18,6 +20,8 @@ public class App extends Application {
                 .setConfig(config)
                 .addTaskListener(new MonitorTaskListener(Tag.TAG, true))
                 .setExecutorService(ThreadManager.getInstance().WORK_EXECUTOR)
+                .setExecutor(Task.EXECUTION_IO, ThreadManager.getInstance().IO_EXECUTOR)
+                .setProfileStore(new TaskProfileStore(new File(getFilesDir(), "dga_startup_profile")))
                 .addOnProjectExecuteListener(new OnProjectListener() {
                     @Override
                     public void onProjectStart() {
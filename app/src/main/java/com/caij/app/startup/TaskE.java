@@ -17,6 +17,11 @@ public class TaskE extends Task {
         return Arrays.asList(MainTaskB.TASK_NAME, TaskD.TASK_NAME);
     }
 
+    @Override
+    public String getExecutionClass() {
+        return EXECUTION_IO;
+    }
+
     @Override
     public String getTaskName() {
         return "TaskE";
@@ -26,25 +26,35 @@ public class ThreadManager {
     public ThreadPoolExecutor WORK_EXECUTOR = new ThreadPoolExecutor(NET_WORK_THREAD_COUNT, NET_WORK_THREAD_COUNT + 4,
             40, TimeUnit.SECONDS,
             new LinkedBlockingQueue<Runnable>(),
-            new ThreadFactory() {
-
-                private final AtomicInteger mThreadId = new AtomicInteger(0);
-
-                @Override
-                public Thread newThread(Runnable r) {
-                    return new Thread(r, "start-" + mThreadId.getAndIncrement()) {
-                        @Override
-                        public void run() {
-                            // why PMD suppression is needed: https://github.com/pmd/pmd/issues/808
-                            android.os.Process.setThreadPriority(DEFAULT_PRIORITY); //NOPMD AccessorMethodGeneration
-                            super.run();
-                        }
-                    };
-                }
-            });
+            newThreadFactory("start-"));
+
+    public ThreadPoolExecutor IO_EXECUTOR = new ThreadPoolExecutor(DISK_IO_THREAD_COUNT, DISK_IO_THREAD_COUNT,
+            40, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            newThreadFactory("start-io-"));
+
+    private static ThreadFactory newThreadFactory(final String prefix) {
+        return new ThreadFactory() {
+
+            private final AtomicInteger mThreadId = new AtomicInteger(0);
+
+            @Override
+            public Thread newThread(Runnable r) {
+                return new Thread(r, prefix + mThreadId.getAndIncrement()) {
+                    @Override
+                    public void run() {
+                        // why PMD suppression is needed: https://github.com/pmd/pmd/issues/808
+                        android.os.Process.setThreadPriority(DEFAULT_PRIORITY); //NOPMD AccessorMethodGeneration
+                        super.run();
+                    }
+                };
+            }
+        };
+    }
 
     private ThreadManager() {
         WORK_EXECUTOR.allowCoreThreadTimeOut(true);
+        IO_EXECUTOR.allowCoreThreadTimeOut(true);
     }
 
 }
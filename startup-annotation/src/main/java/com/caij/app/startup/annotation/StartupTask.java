@@ -0,0 +1,22 @@
+package com.caij.app.startup.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Mark a task for the startup compiler, which generates a registry with the tasks sorted
+ * topologically and their dependencies as int arrays. A dependency missing from the registry or
+ * a cycle fails the build. Dependencies declared here are the only ones, {@code Task.dependencies()}
+ * is never called for registry tasks and need not be overridden.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface StartupTask {
+
+    /**
+     * @return task classes this task depends on, they must be annotated too
+     */
+    Class<?>[] dependsOn() default {};
+}
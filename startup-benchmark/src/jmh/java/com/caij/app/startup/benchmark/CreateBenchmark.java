@@ -0,0 +1,63 @@
+package com.caij.app.startup.benchmark;
+
+import com.caij.app.startup.DGAppStartup;
+import com.caij.app.startup.Task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * create() of synthetic graphs. A task can only be added to one startup, so every iteration builds
+ * {@link SchedulerBenchmark#BATCH_SIZE} graphs up front and each call creates the next one. The
+ * score is the time of the whole batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(batchSize = SchedulerBenchmark.BATCH_SIZE)
+@Measurement(batchSize = SchedulerBenchmark.BATCH_SIZE)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CreateBenchmark {
+
+    @Param({"CHAIN", "FAN_OUT", "DIAMOND", "RANDOM"})
+    public GraphShape shape;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    private final DGAppStartup.Builder[] builders = new DGAppStartup.Builder[SchedulerBenchmark.BATCH_SIZE];
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        ExecutorConfig executor = ExecutorConfig.DIRECT;
+        for (int i = 0; i < builders.length; i++) {
+            DGAppStartup.Builder builder = executor.newBuilder(executor.createPool());
+            for (Task task : shape.create(size)) {
+                builder.add(task);
+            }
+            builders[i] = builder;
+        }
+        next = 0;
+    }
+
+    /**
+     * Resolve names, sort, check for cycles and lay out the int arrays.
+     */
+    @Benchmark
+    public DGAppStartup create() {
+        DGAppStartup.Builder builder = builders[next];
+        builders[next++] = null;
+        return builder.create();
+    }
+}
@@ -0,0 +1,79 @@
+package com.caij.app.startup.benchmark;
+
+import com.caij.app.startup.DGAppStartup;
+import com.caij.app.startup.StartupResult;
+import com.caij.app.startup.Task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler cost of one task: no-op tasks run inline on one {@link ExecutorConfig.DirectExecutor},
+ * so the time is what start() spends to make tasks ready, order them and hand them out. Like
+ * {@link SchedulerBenchmark} every iteration creates {@link SchedulerBenchmark#BATCH_SIZE} startups
+ * up front, the score is the time of the whole batch, divide by
+ * {@code BATCH_SIZE * TASK_COUNT} for the cost per task.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(batchSize = SchedulerBenchmark.BATCH_SIZE)
+@Measurement(batchSize = SchedulerBenchmark.BATCH_SIZE)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DispatchBenchmark {
+
+    static final int TASK_COUNT = 1000;
+
+    @Param({"CHAIN", "FAN_OUT", "DIAMOND", "RANDOM"})
+    public GraphShape shape;
+
+    private ThreadPoolExecutor executor;
+    private final DGAppStartup[] startups = new DGAppStartup[SchedulerBenchmark.BATCH_SIZE];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        executor = ExecutorConfig.DIRECT.createPool();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        executor.shutdown();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        for (int i = 0; i < startups.length; i++) {
+            DGAppStartup.Builder builder = ExecutorConfig.DIRECT.newBuilder(executor);
+            for (Task task : shape.create(TASK_COUNT)) {
+                builder.add(task);
+            }
+            startups[i] = builder.create();
+        }
+        next = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() {
+        for (int i = 0; i < startups.length; i++) {
+            startups[i] = null;
+        }
+    }
+
+    @Benchmark
+    public StartupResult dispatch() {
+        return startups[next++].start();
+    }
+}
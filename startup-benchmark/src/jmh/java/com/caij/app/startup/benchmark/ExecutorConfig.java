@@ -0,0 +1,91 @@
+package com.caij.app.startup.benchmark;
+
+import com.caij.app.startup.Config;
+import com.caij.app.startup.DGAppStartup;
+import com.caij.app.startup.StartupExecutors;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor setups every scheduler change is measured against.
+ */
+public enum ExecutorConfig {
+
+    /**
+     * tasks run inline on the dispatching thread, pure scheduler cost
+     */
+    DIRECT,
+    /**
+     * one thread per core
+     */
+    CPU_POOL,
+    /**
+     * pool the startup manages itself, thread creation included
+     */
+    MANAGED,
+    /**
+     * one thread per core, critical path first and the main thread helping
+     */
+    CPU_POOL_HELP;
+
+    /**
+     * @return pool shared by all invocations of a trial, null when none is needed
+     */
+    ThreadPoolExecutor createPool() {
+        switch (this) {
+            case DIRECT:
+                return new DirectExecutor();
+            case CPU_POOL:
+            case CPU_POOL_HELP:
+                return StartupExecutors.newCpuExecutor();
+            default:
+                return null;
+        }
+    }
+
+    DGAppStartup.Builder newBuilder(ThreadPoolExecutor pool) {
+        Config config = new Config();
+        if (this == CPU_POOL_HELP) {
+            config.isCriticalPathFirst = true;
+            config.isMainThreadHelp = true;
+        }
+        return new DGAppStartup.Builder()
+                .setConfig(config)
+                .setLogger(new NoLogger())
+                .setExecutorService(pool);
+    }
+
+    /**
+     * Runs every command on the calling thread. Commands submitted while one runs are queued and
+     * run by the outermost call, so a 10000 task chain does not nest 10000 calls deep.
+     */
+    static class DirectExecutor extends ThreadPoolExecutor {
+
+        private final ArrayDeque<Runnable> commands = new ArrayDeque<>();
+        private boolean running;
+
+        DirectExecutor() {
+            super(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>());
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            commands.offer(command);
+            if (running) {
+                return;
+            }
+            running = true;
+            try {
+                Runnable next;
+                while ((next = commands.poll()) != null) {
+                    next.run();
+                }
+            } finally {
+                running = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.caij.app.startup.benchmark;
+
+import com.caij.app.startup.Task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic graphs of no-op tasks, the same shape and size always gives the same graph.
+ */
+public enum GraphShape {
+
+    /**
+     * every task depends on the one before, no parallelism at all
+     */
+    CHAIN {
+        @Override
+        List<String> dependencies(int index, Random random) {
+            return index == 0 ? null : single(index - 1);
+        }
+    },
+
+    /**
+     * one root, every other task depends on it
+     */
+    FAN_OUT {
+        @Override
+        List<String> dependencies(int index, Random random) {
+            return index == 0 ? null : single(0);
+        }
+    },
+
+    /**
+     * root, {@link #DIAMOND_WIDTH} parallel tasks and a join, repeated, each join is the next root
+     */
+    DIAMOND {
+        @Override
+        List<String> dependencies(int index, Random random) {
+            int period = DIAMOND_WIDTH + 1;
+            int position = index % period;
+            int root = index - position;
+            if (position != 0) {
+                return single(root);
+            }
+            if (index == 0) {
+                return null;
+            }
+            List<String> dependencies = new ArrayList<>(DIAMOND_WIDTH);
+            for (int i = index - DIAMOND_WIDTH; i < index; i++) {
+                dependencies.add(name(i));
+            }
+            return dependencies;
+        }
+    },
+
+    /**
+     * up to {@link #RANDOM_MAX_DEPENDENCIES} dependencies among the previous {@link #RANDOM_WINDOW} tasks
+     */
+    RANDOM {
+        @Override
+        List<String> dependencies(int index, Random random) {
+            if (index == 0) {
+                return null;
+            }
+            int count = random.nextInt(RANDOM_MAX_DEPENDENCIES + 1);
+            if (count == 0) {
+                return null;
+            }
+            int from = Math.max(0, index - RANDOM_WINDOW);
+            List<String> dependencies = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String dependency = name(from + random.nextInt(index - from));
+                if (!dependencies.contains(dependency)) {
+                    dependencies.add(dependency);
+                }
+            }
+            return dependencies;
+        }
+    };
+
+    static final int DIAMOND_WIDTH = 8;
+    static final int RANDOM_MAX_DEPENDENCIES = 3;
+    static final int RANDOM_WINDOW = 50;
+    private static final long SEED = 42;
+
+    abstract List<String> dependencies(int index, Random random);
+
+    Task[] create(int size) {
+        Random random = new Random(SEED);
+        Task[] tasks = new Task[size];
+        for (int i = 0; i < size; i++) {
+            tasks[i] = new NoOpTask(name(i), dependencies(i, random));
+        }
+        return tasks;
+    }
+
+    static String name(int index) {
+        return "task-" + index;
+    }
+
+    private static List<String> single(int index) {
+        return Collections.singletonList(name(index));
+    }
+}
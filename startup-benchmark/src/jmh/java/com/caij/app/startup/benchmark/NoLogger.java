@@ -0,0 +1,14 @@
+package com.caij.app.startup.benchmark;
+
+import com.caij.app.startup.Logger;
+
+class NoLogger implements Logger {
+
+    @Override
+    public void e(String tag, String msg, Throwable e) {
+    }
+
+    @Override
+    public void d(String tag, String msg) {
+    }
+}
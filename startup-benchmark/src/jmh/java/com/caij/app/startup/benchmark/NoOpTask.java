@@ -0,0 +1,40 @@
+package com.caij.app.startup.benchmark;
+
+import com.caij.app.startup.Task;
+
+import java.util.List;
+
+class NoOpTask extends Task {
+
+    private final String name;
+    private final List<String> dependencies;
+
+    NoOpTask(String name, List<String> dependencies) {
+        this.name = name;
+        this.dependencies = dependencies;
+    }
+
+    @Override
+    public void run() {
+    }
+
+    @Override
+    protected List<String> dependencies() {
+        return dependencies;
+    }
+
+    @Override
+    public String getTaskName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+}
@@ -0,0 +1,120 @@
+package com.caij.app.startup.benchmark;
+
+import com.caij.app.startup.DGAppStartup;
+import com.caij.app.startup.OnProjectListener;
+import com.caij.app.startup.StartupResult;
+import com.caij.app.startup.Task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end start() of synthetic graphs, run with the gc profiler for the allocation rate. A
+ * startup can only start once, so every iteration creates {@link #BATCH_SIZE} startups up front and
+ * each call starts the next one. The score is the time of the whole batch. Pools live for the
+ * trial, the managed pools of the batch are shut down after the iteration. create() is measured by
+ * {@link CreateBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(batchSize = SchedulerBenchmark.BATCH_SIZE)
+@Measurement(batchSize = SchedulerBenchmark.BATCH_SIZE)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchedulerBenchmark {
+
+    static final int BATCH_SIZE = 50;
+
+    @Param({"CHAIN", "FAN_OUT", "DIAMOND", "RANDOM"})
+    public GraphShape shape;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    @Param({"DIRECT", "CPU_POOL", "MANAGED", "CPU_POOL_HELP"})
+    public ExecutorConfig executor;
+
+    private ThreadPoolExecutor pool;
+    private final DGAppStartup[] startups = new DGAppStartup[BATCH_SIZE];
+    private final CountDownLatch[] finished = new CountDownLatch[BATCH_SIZE];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        pool = executor.createPool();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            final CountDownLatch latch = new CountDownLatch(1);
+            DGAppStartup.Builder builder = executor.newBuilder(pool);
+            for (Task task : shape.create(size)) {
+                builder.add(task);
+            }
+            startups[i] = builder
+                    .addOnProjectExecuteListener(new OnProjectListener() {
+                        @Override
+                        public void onProjectStart() {
+                        }
+
+                        @Override
+                        public void onProjectFinish() {
+                            latch.countDown();
+                        }
+
+                        @Override
+                        public void onStageFinish() {
+                        }
+                    })
+                    .create();
+            finished[i] = latch;
+        }
+        next = 0;
+    }
+
+    /**
+     * A managed pool belongs to its startup, left alone its threads would linger for a second.
+     */
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            if (pool == null) {
+                startups[i].getExecutorService().shutdown();
+            }
+            startups[i] = null;
+            finished[i] = null;
+        }
+    }
+
+    /**
+     * From start() until the last task finished.
+     */
+    @Benchmark
+    public StartupResult start() throws InterruptedException {
+        int index = next++;
+        StartupResult result = startups[index].start();
+        finished[index].await();
+        return result;
+    }
+}
@@ -0,0 +1,335 @@
+package com.caij.app.startup.compiler;
+
+import com.caij.app.startup.annotation.StartupTask;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates {@code com.caij.app.startup.generated.DGStartupRegistry_<module>} from
+ * {@link StartupTask}. The module name comes from the {@code dgstartup.module} option.
+ */
+public class StartupTaskProcessor extends AbstractProcessor {
+
+    static final String OPTION_MODULE = "dgstartup.module";
+    static final String TASK_CLASS = "com.caij.app.startup.Task";
+    static final String REGISTRY_CLASS = "com.caij.app.startup.TaskRegistry";
+    static final String GENERATED_PACKAGE = "com.caij.app.startup.generated";
+
+    private final Map<String, TypeElement> taskElements = new LinkedHashMap<>();
+    private boolean generated;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(StartupTask.class.getCanonicalName());
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_MODULE);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(StartupTask.class)) {
+            if (element.getKind() != ElementKind.CLASS || !checkTask((TypeElement) element)) {
+                continue;
+            }
+            TypeElement typeElement = (TypeElement) element;
+            if (generated) {
+                // a source generated by another processor, the registry is already written
+                error(typeElement, typeElement.getQualifiedName() + " appeared after "
+                        + "the registry was generated, annotate a hand written class instead");
+                continue;
+            }
+            taskElements.put(typeElement.getQualifiedName().toString(), typeElement);
+        }
+
+        // write the registry in the round that found the tasks, a source written in the last
+        // round is not compiled any more and javac warns about it
+        if (!generated && !taskElements.isEmpty()) {
+            generated = true;
+            generate();
+        }
+        return true;
+    }
+
+    private boolean checkTask(TypeElement element) {
+        TypeMirror taskType = processingEnv.getElementUtils().getTypeElement(TASK_CLASS).asType();
+        if (!processingEnv.getTypeUtils().isAssignable(element.asType(), taskType)) {
+            error(element, element.getQualifiedName() + " must extends " + TASK_CLASS);
+            return false;
+        }
+        if (element.getModifiers().contains(Modifier.ABSTRACT) || !element.getModifiers().contains(Modifier.PUBLIC)) {
+            error(element, element.getQualifiedName() + " must be public and not abstract");
+            return false;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        error(element, element.getQualifiedName() + " must have a public no-arg constructor");
+        return false;
+    }
+
+    private List<String> getDependsOn(TypeElement element) {
+        List<String> dependsOn = new ArrayList<>();
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (!StartupTask.class.getCanonicalName().equals(mirror.getAnnotationType().toString())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if (!"dependsOn".contentEquals(entry.getKey().getSimpleName())) {
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                List<? extends AnnotationValue> values = (List<? extends AnnotationValue>) entry.getValue().getValue();
+                for (AnnotationValue value : values) {
+                    TypeElement depElement = (TypeElement) ((DeclaredType) value.getValue()).asElement();
+                    dependsOn.add(depElement.getQualifiedName().toString());
+                }
+            }
+        }
+        return dependsOn;
+    }
+
+    private void generate() {
+        List<String> names = new ArrayList<>(taskElements.keySet());
+        Collections.sort(names);
+        int size = names.size();
+        Map<String, Integer> indexMap = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            indexMap.put(names.get(i), i);
+        }
+
+        List<List<Integer>> parents = new ArrayList<>(size);
+        List<List<Integer>> children = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            children.add(new ArrayList<Integer>());
+        }
+        boolean hasError = false;
+        for (int i = 0; i < size; i++) {
+            TypeElement element = taskElements.get(names.get(i));
+            Set<Integer> deps = new LinkedHashSet<>();
+            for (String dep : getDependsOn(element)) {
+                Integer depIndex = indexMap.get(dep);
+                if (depIndex == null) {
+                    error(element, dep + " not added, it must be annotated with @StartupTask");
+                    hasError = true;
+                } else {
+                    deps.add(depIndex);
+                    children.get(depIndex).add(i);
+                }
+            }
+            parents.add(new ArrayList<>(deps));
+        }
+        if (hasError) {
+            return;
+        }
+
+        // Kahn, pick the smallest ready name first so the output is stable
+        int[] inDegree = new int[size];
+        List<Integer> ready = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            inDegree[i] = parents.get(i).size();
+            if (inDegree[i] == 0) {
+                ready.add(i);
+            }
+        }
+        List<Integer> order = new ArrayList<>(size);
+        while (!ready.isEmpty()) {
+            Collections.sort(ready, Collections.<Integer>reverseOrder());
+            int current = ready.remove(ready.size() - 1);
+            order.add(current);
+            for (int child : children.get(current)) {
+                if (--inDegree[child] == 0) {
+                    ready.add(child);
+                }
+            }
+        }
+        if (order.size() != size) {
+            for (int i = 0; i < size; i++) {
+                if (inDegree[i] > 0) {
+                    String cycle = findCycle(i, names, parents, inDegree);
+                    error(taskElements.get(names.get(i)), "circular dependency: " + cycle);
+                    return;
+                }
+            }
+        }
+
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[order.get(i)] = i;
+        }
+
+        String module = processingEnv.getOptions().get(OPTION_MODULE);
+        if (module == null || module.isEmpty()) {
+            module = "Default";
+        }
+        String className = "DGStartupRegistry_" + module.replaceAll("[^A-Za-z0-9_]", "_");
+        writeRegistry(className, names, order, parents, ids);
+    }
+
+    /**
+     * Every task left by Kahn has a parent left too, so walking back through those parents must
+     * reach a task twice, the walk between both visits is the cycle.
+     */
+    private String findCycle(int start, List<String> names, List<List<Integer>> parents, int[] inDegree) {
+        List<Integer> path = new ArrayList<>();
+        Map<Integer, Integer> position = new LinkedHashMap<>();
+        int current = start;
+        while (!position.containsKey(current)) {
+            position.put(current, path.size());
+            path.add(current);
+            for (int parent : parents.get(current)) {
+                if (inDegree[parent] > 0) {
+                    current = parent;
+                    break;
+                }
+            }
+        }
+        StringBuilder builder = new StringBuilder(names.get(current));
+        for (int i = path.size() - 1; i >= position.get(current); i--) {
+            builder.append(" -> ").append(names.get(path.get(i)));
+        }
+        return builder.toString();
+    }
+
+    private void writeRegistry(String className, List<String> names, List<Integer> order,
+                               List<List<Integer>> parents, final int[] ids) {
+        int size = order.size();
+        List<List<Integer>> children = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            children.add(new ArrayList<Integer>());
+        }
+        int[] levels = new int[size];
+        StringBuilder offsets = new StringBuilder("0");
+        StringBuilder dependencies = new StringBuilder();
+        StringBuilder creates = new StringBuilder();
+        int offset = 0;
+        for (int id = 0; id < size; id++) {
+            int index = order.get(id);
+            List<Integer> deps = new ArrayList<>(parents.get(index));
+            Collections.sort(deps, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer lhs, Integer rhs) {
+                    return ids[lhs] - ids[rhs];
+                }
+            });
+            for (int dep : deps) {
+                if (dependencies.length() > 0) {
+                    dependencies.append(", ");
+                }
+                dependencies.append(ids[dep]);
+                // ids grow along the order, so every child list ends up sorted
+                children.get(ids[dep]).add(id);
+                levels[id] = Math.max(levels[id], levels[ids[dep]] + 1);
+            }
+            offset += deps.size();
+            offsets.append(", ").append(offset);
+            creates.append("                new ").append(names.get(index)).append("(),\n");
+        }
+
+        StringBuilder childOffsets = new StringBuilder("0");
+        StringBuilder childIds = new StringBuilder();
+        StringBuilder levelValues = new StringBuilder();
+        offset = 0;
+        for (int id = 0; id < size; id++) {
+            for (int child : children.get(id)) {
+                if (childIds.length() > 0) {
+                    childIds.append(", ");
+                }
+                childIds.append(child);
+            }
+            offset += children.get(id).size();
+            childOffsets.append(", ").append(offset);
+            if (id > 0) {
+                levelValues.append(", ");
+            }
+            levelValues.append(levels[id]);
+        }
+
+        String source = "package " + GENERATED_PACKAGE + ";\n\n"
+                + "/**\n * Generated by " + StartupTaskProcessor.class.getName() + ", do not edit.\n */\n"
+                + "public final class " + className + " implements " + REGISTRY_CLASS + " {\n\n"
+                + "    private static final int[] DEPENDENCY_OFFSETS = {" + offsets + "};\n\n"
+                + "    private static final int[] DEPENDENCIES = {" + dependencies + "};\n\n"
+                + "    private static final int[] CHILD_OFFSETS = {" + childOffsets + "};\n\n"
+                + "    private static final int[] CHILDREN = {" + childIds + "};\n\n"
+                + "    private static final int[] LEVELS = {" + levelValues + "};\n\n"
+                + "    @Override\n"
+                + "    public " + TASK_CLASS + "[] createTasks() {\n"
+                + "        return new " + TASK_CLASS + "[] {\n" + creates
+                + "        };\n"
+                + "    }\n\n"
+                + "    @Override\n"
+                + "    public int[] getDependencyOffsets() {\n"
+                + "        return DEPENDENCY_OFFSETS;\n"
+                + "    }\n\n"
+                + "    @Override\n"
+                + "    public int[] getDependencies() {\n"
+                + "        return DEPENDENCIES;\n"
+                + "    }\n\n"
+                + "    @Override\n"
+                + "    public int[] getChildOffsets() {\n"
+                + "        return CHILD_OFFSETS;\n"
+                + "    }\n\n"
+                + "    @Override\n"
+                + "    public int[] getChildren() {\n"
+                + "        return CHILDREN;\n"
+                + "    }\n\n"
+                + "    @Override\n"
+                + "    public int[] getLevels() {\n"
+                + "        return LEVELS;\n"
+                + "    }\n"
+                + "}\n";
+
+        Element[] originating = taskElements.values().toArray(new Element[0]);
+        try {
+            JavaFileObject file = processingEnv.getFiler()
+                    .createSourceFile(GENERATED_PACKAGE + "." + className, originating);
+            Writer writer = file.openWriter();
+            try {
+                writer.write(source);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "write " + className + " fail " + e);
+        }
+    }
+
+    private void error(Element element, String msg) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, msg, element);
+    }
+}
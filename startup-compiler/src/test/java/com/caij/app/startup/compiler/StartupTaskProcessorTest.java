@@ -0,0 +1,87 @@
+package com.caij.app.startup.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+public class StartupTaskProcessorTest {
+
+    private static final String REGISTRY = "com.caij.app.startup.generated.DGStartupRegistry_App";
+
+    @Test
+    public void registry_sortsTasksAndLinksArrays() {
+        // names sort as a, b, c but b depends on c
+        Compilation compilation = compile(
+                task("A"),
+                task("B", "C.class"),
+                task("C", "A.class"));
+
+        assertThat(compilation).succeeded();
+        assertThat(compilation).generatedSourceFile(REGISTRY).contentsAsUtf8String()
+                .contains("new demo.A(),\n                new demo.C(),\n                new demo.B(),");
+        assertThat(compilation).generatedSourceFile(REGISTRY).contentsAsUtf8String()
+                .contains("DEPENDENCY_OFFSETS = {0, 0, 1, 2};");
+        assertThat(compilation).generatedSourceFile(REGISTRY).contentsAsUtf8String()
+                .contains("DEPENDENCIES = {0, 1};");
+        assertThat(compilation).generatedSourceFile(REGISTRY).contentsAsUtf8String()
+                .contains("CHILD_OFFSETS = {0, 1, 2, 2};");
+        assertThat(compilation).generatedSourceFile(REGISTRY).contentsAsUtf8String()
+                .contains("CHILDREN = {1, 2};");
+        assertThat(compilation).generatedSourceFile(REGISTRY).contentsAsUtf8String()
+                .contains("LEVELS = {0, 1, 2};");
+    }
+
+    @Test
+    public void unknownDependency_failsBuild() {
+        Compilation compilation = compile(
+                task("A", "B.class"),
+                JavaFileObjects.forSourceLines("demo.B",
+                        "package demo;",
+                        "public class B {}"));
+
+        assertThat(compilation).failed();
+        assertThat(compilation).hadErrorContaining("demo.B not added, it must be annotated with @StartupTask");
+    }
+
+    @Test
+    public void cycle_failsBuildWithPath() {
+        // the path follows dependents, like the runtime check
+        Compilation compilation = compile(
+                task("A", "B.class"),
+                task("B", "C.class"),
+                task("C", "A.class"));
+
+        assertThat(compilation).failed();
+        assertThat(compilation).hadErrorContaining("circular dependency: demo.A -> demo.C -> demo.B -> demo.A");
+    }
+
+    private static Compilation compile(JavaFileObject... sources) {
+        return javac()
+                .withProcessors(new StartupTaskProcessor())
+                .withOptions("-A" + StartupTaskProcessor.OPTION_MODULE + "=App")
+                .compile(sources);
+    }
+
+    private static JavaFileObject task(String name, String... dependsOn) {
+        StringBuilder classes = new StringBuilder();
+        for (String dependency : dependsOn) {
+            if (classes.length() > 0) {
+                classes.append(", ");
+            }
+            classes.append(dependency);
+        }
+        return JavaFileObjects.forSourceLines("demo." + name,
+                "package demo;",
+                "@com.caij.app.startup.annotation.StartupTask(dependsOn = {" + classes + "})",
+                "public class " + name + " extends com.caij.app.startup.Task {",
+                "    @Override public void run() {}",
+                "    @Override public String getTaskName() { return \"" + name + "\"; }",
+                "}");
+    }
+}
@@ -0,0 +1,42 @@
+package com.caij.app.startup;
+
+/**
+ * Task waiting on async io or a callback based sdk without holding a thread. {@link #run(TaskCompletion)}
+ * only starts the work and returns, the thread goes back to the pool right away and dependents start
+ * once the work calls {@link TaskCompletion#success(Object)} or {@link TaskCompletion#fail(Throwable)}
+ * from any thread. A small pool keeps many of them in flight.
+ * <pre>
+ * public void run(final TaskCompletion completion) {
+ *     Sdk.init(context, new Sdk.Callback() {
+ *         public void onReady() {
+ *             completion.success(null);
+ *         }
+ *
+ *         public void onError(Exception e) {
+ *             completion.fail(e);
+ *         }
+ *     });
+ * }
+ * </pre>
+ */
+public abstract class CallbackTask extends Task {
+
+    private final TaskCompletion completion = new TaskCompletion(this);
+
+    /**
+     * Start the work, a throwable thrown here fails the task like calling
+     * {@link TaskCompletion#fail(Throwable)}.
+     */
+    public abstract void run(TaskCompletion completion);
+
+    @Override
+    public final void run() {
+        throw new IllegalStateException("callback task " + getTaskName() + " runs with a completion");
+    }
+
+    @Override
+    boolean runTask() {
+        run(completion);
+        return false;
+    }
+}
@@ -0,0 +1,12 @@
+package com.caij.app.startup;
+
+/**
+ * Time source of the scheduler, see {@link DGAppStartup.Builder#setClock(Clock)}.
+ */
+public interface Clock {
+
+    /**
+     * @return monotonic milliseconds, only differences are meaningful
+     */
+    long uptimeMillis();
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.caij.app.startup;
+
+
+public class Config {
+
+    /**
+     * overrun task keeps running in background, start() returns and only logs it
+     */
+    public static final int OVERRUN_POLICY_RETURN = 0;
+    /**
+     * like {@link #OVERRUN_POLICY_RETURN} and notify {@link OnTaskOverrunListener}
+     */
+    public static final int OVERRUN_POLICY_NOTIFY = 1;
+    /**
+     * like {@link #OVERRUN_POLICY_NOTIFY}, in strict mode start() throws
+     */
+    public static final int OVERRUN_POLICY_FAIL = 2;
+
+    /**
+     * a failed task is only reported, its dependents still run
+     */
+    public static final int FAILURE_POLICY_CONTINUE = 0;
+    /**
+     * transitive dependents of a failed task never run and are reported as skipped
+     */
+    public static final int FAILURE_POLICY_SKIP_DEPENDENTS = 1;
+    /**
+     * transitive dependents of a failed task never run and are reported as failed with its cause
+     */
+    public static final int FAILURE_POLICY_FAIL_DEPENDENTS = 2;
+
+    /**
+     * check state strict mode , will throw illegal state some exception,
+     * start() throws when a task failed before it returned, later failures are only logged and
+     * kept in the {@link StartupResult}
+     */
+    public boolean isStrictMode = false;
+
+    /**
+     * what happens to dependents of a failed task, one of FAILURE_POLICY_*
+     */
+    public int failurePolicy = FAILURE_POLICY_CONTINUE;
+
+    /**
+     * dispatch ready tasks by remaining critical path length (longest first) instead of priority only,
+     * priority still breaks ties. see {@link Task#getEstimatedDuration()}
+     */
+    public boolean isCriticalPathFirst = false;
+
+    /**
+     * while start() blocks, the main thread runs ready background tasks itself, preferring tasks
+     * on the path to {@link Task#isWaitOnMainThread()} tasks
+     */
+    public boolean isMainThreadHelp = false;
+
+    /**
+     * start() returns at the latest this many milliseconds after it was called, 0 waits forever,
+     * see {@link Task#getDeadlineMillis()} for per task budgets
+     */
+    public long startDeadlineMillis = 0;
+
+    /**
+     * what happens when a deadline is hit, one of OVERRUN_POLICY_*
+     */
+    public int overrunPolicy = OVERRUN_POLICY_NOTIFY;
+
+    /**
+     * main thread time in milliseconds one idle slice may spend on deferred tasks, the rest waits
+     * for the next idle time. see {@link Task#isDeferred()}
+     */
+    public long idleSliceMillis = 8;
+
+    /**
+     * log the {@link StartupReport} in the background after the project finished
+     */
+    public boolean isLogReport = false;
+
+}
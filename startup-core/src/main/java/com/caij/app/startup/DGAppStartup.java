@@ -0,0 +1,1208 @@
+package com.caij.app.startup;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class DGAppStartup {
+
+    public static final String TAG = "DGAppStartup";
+
+    private static final int FAILURE_OPEN = 0;
+    private static final int FAILURE_START_RETURNED = 1;
+    private static final int FAILURE_PROJECT_FINISHED = 2;
+
+    private CountDownLatch waitCountDownLatch;
+    private AtomicInteger atomicMainTaskCount;
+    private MainExecutor mainExecutor;
+    private final TaskListener[] taskListeners;
+    private final List<OnProjectListener> projectListeners;
+    private final AtomicInteger remainingStageTaskCount;
+    private final AtomicInteger remainingTaskCount;
+    private final Task[] startTaskNodes;
+    private final TaskGraph graph;
+    private final AtomicIntegerArray pendingDependencies;
+    private final TaskProfileStore profileStore;
+    private final ReadyQueue readyQueue;
+    private final ThreadPoolExecutor threadPoolExecutor;
+    private final Map<String, Executor> executors;
+    private final Map<Executor, ReadyQueue> readyQueues = new IdentityHashMap<>();
+    private final Task[] waitTasks;
+    private final List<OnTaskOverrunListener> overrunListeners;
+    private Executor mainThreadExecutor;
+    private final StartupResult result = new StartupResult();
+    private long projectStartTime;
+    // strict mode: whoever moves it away from FAILURE_OPEN decides if start() throws
+    private final AtomicInteger failureState = new AtomicInteger(FAILURE_OPEN);
+    private volatile Thread startThread;
+    private final Platform platform;
+    private final MetricsRecorder metricsRecorder;
+    private final TraceWriter traceWriter;
+    private StartupReport report;
+    private final RegressionChecker regressionChecker;
+    private final OnRegressionListener regressionListener;
+    private final Object lazyLock = new Object();
+    private final AtomicInteger awaitingCount = new AtomicInteger();
+    private final Executor lazyMainExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            mainExecutor.execute(command);
+            // the start thread may block in await(), it runs the task itself
+            wakeAwaiting();
+        }
+    };
+    private boolean hasLazyMainTask;
+    private final Task[] deferredTasks;
+    private IdleExecutor idleExecutor;
+    private final Map<String, Stage> stages = new HashMap<>();
+    private final Stage[] stageArray;
+    private final int[] stageOffsets;
+    private final int[] stageIds;
+    private final Runnable releaseDeferred = new Runnable() {
+        @Override
+        public void run() {
+            for (Task task : deferredTasks) {
+                if (pendingDependencies.decrementAndGet(task.getId()) == 0) {
+                    task.start();
+                }
+            }
+        }
+    };
+
+    final Config config;
+    final Logger logger;
+    final Clock clock;
+    final Comparator<Task> taskComparator;
+
+    private DGAppStartup(Builder builder, TaskGraph graph) {
+        this.taskListeners = builder.taskListeners.toArray(new TaskListener[0]);
+        this.projectListeners = builder.projectListeners;
+        this.config = builder.config;
+        this.logger = builder.logger;
+        this.clock = builder.clock;
+        this.platform = builder.platform;
+        this.metricsRecorder = new MetricsRecorder(graph);
+        this.regressionChecker = builder.regressionChecker;
+        this.regressionListener = builder.regressionListener;
+        this.traceWriter = builder.traceFile != null ? new TraceWriter(builder.traceFile, graph) : null;
+        this.taskComparator = Utils.getComparator(config.isCriticalPathFirst);
+        this.profileStore = builder.profileStore;
+        this.threadPoolExecutor = builder.threadPoolExecutor;
+        this.executors = builder.executors;
+        this.graph = graph;
+        this.overrunListeners = builder.overrunListeners;
+        this.mainThreadExecutor = builder.mainThreadExecutor;
+
+        TaskListener defaultTaskListener = new TaskStateListener();
+        int inStageSize = 0;
+        int waitCount = 0;
+
+        // the main thread only helps with cpu tasks, never blocks on io
+        Executor cpuExecutor = getExecutor(Task.EXECUTION_CPU);
+        readyQueue = cpuExecutor != null ? getReadyQueue(cpuExecutor) : null;
+
+        int mainTaskCount = 0;
+        int lazyCount = 0;
+        List<Task> deferred = new ArrayList<>();
+        for (Task task : graph.getTasks()) {
+            task.setStartup(this);
+            task.setFuture(new TaskFuture<>(task.getTaskName()));
+            task.setTaskListener(defaultTaskListener);
+            if (task.isLazy()) {
+                // left out of every count start() and the stage wait for
+                lazyCount ++;
+                if (task.isMustRunMainThread()) {
+                    getMainExecutor();
+                    task.setExecutorService(lazyMainExecutor);
+                    hasLazyMainTask = true;
+                } else {
+                    task.setReadyQueue(getReadyQueue(task));
+                }
+                continue;
+            }
+            if (task.isDeferred()) {
+                // not part of the stage, start() never waits for it
+                deferred.add(task);
+                if (task.isMustRunMainThread()) {
+                    task.setExecutorService(getIdleExecutor(builder.idleScheduler));
+                } else {
+                    task.setReadyQueue(getReadyQueue(task));
+                }
+                continue;
+            }
+            if (task.isMustRunMainThread()) {
+                task.setExecutorService(getMainExecutor());
+                mainTaskCount ++;
+            } else {
+                task.setReadyQueue(getReadyQueue(task));
+            }
+
+            if (task.isInStage()) {
+                inStageSize ++;
+            }
+
+            if (task.isWaitOnMainThread()) {
+                waitCount ++;
+            }
+        }
+
+        if (config.isCriticalPathFirst) {
+            computeCriticalPath();
+        }
+        if (config.isMainThreadHelp) {
+            markWaitPath();
+            getMainExecutor();
+        }
+        graph.sortChildren(taskComparator);
+        int[] dependencyCounts = graph.getDependencyCounts().clone();
+        List<Task> startTasks = new ArrayList<>(graph.getStartTasks().length);
+        for (Task task : graph.getTasks()) {
+            if (task.isLazy() || task.isDeferred()) {
+                // one more pending token, released by the first request or the idle signal
+                dependencyCounts[task.getId()]++;
+            }
+        }
+        for (Task task : graph.getStartTasks()) {
+            if (!task.isLazy() && !task.isDeferred()) {
+                startTasks.add(task);
+            }
+        }
+        pendingDependencies = new AtomicIntegerArray(dependencyCounts);
+
+        // stage membership per task id, CSR style like the children
+        Task[] tasks = graph.getTasks();
+        List<Stage> stageList = new ArrayList<>();
+        List<Integer> memberships = new ArrayList<>();
+        stageOffsets = new int[tasks.length + 1];
+        for (Task task : tasks) {
+            List<String> stageNames = task.stages();
+            if (stageNames != null && !stageNames.isEmpty()) {
+                if (task.isLazy()) {
+                    throw new IllegalStateException("lazy task " + task.getTaskName() + " can not be part of a stage");
+                }
+                for (String stageName : new LinkedHashSet<>(stageNames)) {
+                    Stage stage = stages.get(stageName);
+                    if (stage == null) {
+                        stage = new Stage(stageName);
+                        stages.put(stageName, stage);
+                        memberships.add(stageList.size());
+                        stageList.add(stage);
+                    } else {
+                        memberships.add(stageList.indexOf(stage));
+                    }
+                    stage.addTask();
+                }
+            }
+            stageOffsets[task.getId() + 1] = memberships.size();
+        }
+        // a stage left without tasks by pruning is already finished
+        for (Task task : graph.getPrunedTasks()) {
+            List<String> stageNames = task.stages();
+            if (stageNames == null) {
+                continue;
+            }
+            for (String stageName : stageNames) {
+                if (!stages.containsKey(stageName)) {
+                    Stage stage = new Stage(stageName);
+                    stage.addTask();
+                    stage.onTaskDone();
+                    stages.put(stageName, stage);
+                }
+            }
+        }
+        stageArray = stageList.toArray(new Stage[0]);
+        stageIds = new int[memberships.size()];
+        for (int i = 0; i < stageIds.length; i++) {
+            stageIds[i] = memberships.get(i);
+        }
+        for (Map.Entry<String, List<OnStageListener>> entry : builder.stageListeners.entrySet()) {
+            Stage stage = getStage(entry.getKey());
+            for (OnStageListener listener : entry.getValue()) {
+                stage.addListener(listener);
+            }
+        }
+
+        startTaskNodes = startTasks.toArray(new Task[0]);
+        Arrays.sort(startTaskNodes, taskComparator);
+        deferredTasks = deferred.toArray(new Task[0]);
+        Arrays.sort(deferredTasks, taskComparator);
+        if (deferredTasks.length > 0) {
+            getIdleExecutor(builder.idleScheduler);
+        }
+
+        this.remainingTaskCount = new AtomicInteger(graph.getTaskCount() - lazyCount);
+        this.remainingStageTaskCount = new AtomicInteger(inStageSize);
+
+        if (mainTaskCount > 0) {
+            atomicMainTaskCount = new AtomicInteger(mainTaskCount);
+        }
+
+        waitTasks = new Task[waitCount];
+        if (waitCount > 0) {
+            waitCountDownLatch = new CountDownLatch(waitCount);
+            int index = 0;
+            for (Task task : graph.getTasks()) {
+                if (task.isWaitOnMainThread()) {
+                    waitTasks[index++] = task;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return executor of the execution class, the default executor service when none was set
+     */
+    private Executor getExecutor(String executionClass) {
+        Executor executor = executors.get(executionClass);
+        return executor != null ? executor : threadPoolExecutor;
+    }
+
+    private ReadyQueue getReadyQueue(Task task) {
+        String executionClass = task.getExecutionClass();
+        Executor executor = getExecutor(executionClass == null ? Task.EXECUTION_CPU : executionClass);
+        if (executor == null) {
+            throw new IllegalStateException("no executor for execution class " + executionClass
+                    + " of task " + task.getTaskName());
+        }
+        // a callback task hands its thread back before the io starts
+        task.setBlocking(executor instanceof ManagedExecutor && Task.EXECUTION_IO.equals(executionClass)
+                && !(task instanceof CallbackTask));
+        return getReadyQueue(executor);
+    }
+
+    /**
+     * Execution classes sharing one executor share its queue, priority holds across them.
+     */
+    private ReadyQueue getReadyQueue(Executor executor) {
+        ReadyQueue queue = readyQueues.get(executor);
+        if (queue == null) {
+            queue = new ReadyQueue(executor, taskComparator, graph.getTaskCount());
+            readyQueues.put(executor, queue);
+        }
+        return queue;
+    }
+
+    /**
+     * Walk the graph in reverse topological order, a task's critical path is its own estimated
+     * duration plus the longest critical path of its children.
+     */
+    private void computeCriticalPath() {
+        Task[] tasks = graph.getTasks();
+        int[] childOffsets = graph.getChildOffsets();
+        int[] childIds = graph.getChildIds();
+        for (int id = tasks.length - 1; id >= 0; id--) {
+            long longestChild = 0;
+            for (int i = childOffsets[id]; i < childOffsets[id + 1]; i++) {
+                longestChild = Math.max(longestChild, tasks[childIds[i]].getCriticalPathLength());
+            }
+            tasks[id].setCriticalPathLength(estimateMicros(tasks[id]) + longestChild);
+        }
+    }
+
+    private void markWaitPath() {
+        Task[] tasks = graph.getTasks();
+        int[] childOffsets = graph.getChildOffsets();
+        int[] childIds = graph.getChildIds();
+        for (int id = tasks.length - 1; id >= 0; id--) {
+            boolean onWaitPath = tasks[id].isWaitOnMainThread();
+            for (int i = childOffsets[id]; i < childOffsets[id + 1] && !onWaitPath; i++) {
+                onWaitPath = tasks[childIds[i]].isOnWaitPath();
+            }
+            tasks[id].setOnWaitPath(onWaitPath);
+        }
+    }
+
+    /**
+     * Remaining dependencies live in one atomic array, the thread taking a child to zero starts it.
+     */
+    void onTaskFinished(Task task, Throwable failure) {
+        if (failure != null) {
+            result.addFailure(task, failure);
+            if (config.failurePolicy != Config.FAILURE_POLICY_CONTINUE) {
+                skipDependents(task, failure);
+                return;
+            }
+        }
+        Task[] tasks = graph.getTasks();
+        int[] childOffsets = graph.getChildOffsets();
+        int[] childIds = graph.getChildIds();
+        int id = task.getId();
+        for (int i = childOffsets[id]; i < childOffsets[id + 1]; i++) {
+            int childId = childIds[i];
+            if (pendingDependencies.decrementAndGet(childId) == 0) {
+                tasks[childId].start();
+            }
+        }
+    }
+
+    /**
+     * Transitive dependents of a failed task are finished right away without running, so every
+     * count and latch they hold is released in the same call.
+     */
+    private void skipDependents(Task task, Throwable failure) {
+        Task[] tasks = graph.getTasks();
+        int[] childOffsets = graph.getChildOffsets();
+        int[] childIds = graph.getChildIds();
+        ArrayDeque<Task> stack = new ArrayDeque<>();
+        stack.push(task);
+        while (!stack.isEmpty()) {
+            int id = stack.pop().getId();
+            for (int i = childOffsets[id]; i < childOffsets[id + 1]; i++) {
+                Task child = tasks[childIds[i]];
+                if (!child.skip()) {
+                    continue;
+                }
+                child.getFuture().complete(null, failure);
+                if (config.failurePolicy == Config.FAILURE_POLICY_FAIL_DEPENDENTS) {
+                    result.addFailure(child, failure);
+                } else {
+                    result.addSkipped(child);
+                }
+                stack.push(child);
+                onTaskDone(child);
+            }
+        }
+        if (mainExecutor != null) {
+            // wake up the main thread, skipped tasks may be all it waits for
+            mainExecutor.wakeUp();
+        }
+    }
+
+    /**
+     * @return profiled run time in microseconds, else {@link Task#getEstimatedDuration()}
+     */
+    long estimateMicros(Task task) {
+        if (profileStore != null) {
+            long micros = profileStore.getEstimatedMicros(task.getTaskName());
+            if (micros >= 0) {
+                return micros;
+            }
+        }
+        return Math.max(0, task.getEstimatedDuration()) * 1000;
+    }
+
+    private void saveProfile() {
+        runInBackground(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    profileStore.save();
+                } catch (Throwable e) {
+                    logger.e(TAG, "save profile fail " + e.getMessage(), e);
+                }
+            }
+        }, "profile");
+    }
+
+    private void writeTrace() {
+        runInBackground(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    traceWriter.write(metricsRecorder.snapshot());
+                } catch (Throwable e) {
+                    logger.e(TAG, "write trace " + traceWriter.getFile() + " fail " + e.getMessage(), e);
+                }
+            }
+        }, "trace");
+    }
+
+    private void logReport() {
+        runInBackground(new Runnable() {
+            @Override
+            public void run() {
+                logger.d(TAG, "startup report\n" + getReport());
+            }
+        }, "report");
+    }
+
+    private void checkRegression() {
+        runInBackground(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    regressionChecker.ensureLoaded();
+                    RegressionReport report = regressionChecker.check(metricsRecorder.snapshot());
+                    if (report.hasRegression()) {
+                        logger.e(TAG, "startup regression " + report.getRegressions(), null);
+                        if (regressionListener != null) {
+                            regressionListener.onRegression(report);
+                        }
+                    }
+                } catch (Throwable e) {
+                    logger.e(TAG, "check regression fail " + e.getMessage(), e);
+                }
+            }
+        }, "regression");
+    }
+
+    /**
+     * Work after the project finished goes to the io executor, never to a task thread.
+     */
+    private void runInBackground(Runnable runnable, String name) {
+        Executor executor = getExecutor(Task.EXECUTION_IO);
+        if (executor != null && !(executor instanceof ExecutorService && ((ExecutorService) executor).isShutdown())) {
+            executor.execute(runnable);
+        } else {
+            new Thread(runnable, TAG + "-" + name).start();
+        }
+    }
+
+    private Executor getIdleExecutor(IdleScheduler idleScheduler) {
+        if (idleExecutor == null) {
+            if (idleScheduler == null) {
+                idleScheduler = platform.createIdleScheduler();
+            }
+            idleExecutor = new IdleExecutor(idleScheduler, clock, config.idleSliceMillis);
+        }
+        return idleExecutor;
+    }
+
+    private Executor getMainExecutor() {
+        if (mainExecutor == null) {
+            mainExecutor = new MainExecutor();
+        }
+        return mainExecutor;
+    }
+
+    private void notifyStageFinish() {
+        for (OnProjectListener onProjectListener : projectListeners) {
+            onProjectListener.onStageFinish();
+        }
+    }
+
+    /**
+     * @return nanosecond timeline of the launch, null until the project finished
+     */
+    public StartupMetrics getMetrics() {
+        return metricsRecorder.snapshot();
+    }
+
+    /**
+     * @return critical path, slack and parallelism of the launch, null until the project finished
+     */
+    public synchronized StartupReport getReport() {
+        if (report == null) {
+            StartupMetrics metrics = metricsRecorder.snapshot();
+            if (metrics != null) {
+                report = StartupReport.create(metrics, graph);
+            }
+        }
+        return report;
+    }
+
+    /**
+     * @return compiled graph with its stats
+     */
+    public TaskGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return pool running the cpu tasks, the one the startup created itself when none was set.
+     * Shut that one down when lazy tasks can no longer come and its threads must go at once
+     */
+    public ThreadPoolExecutor getExecutorService() {
+        return threadPoolExecutor;
+    }
+
+    /**
+     * @return outcome of this launch, tasks still running keep adding to it
+     */
+    public StartupResult start() {
+        startThread = Thread.currentThread();
+        projectStartTime = clock.uptimeMillis();
+        metricsRecorder.onProjectStart();
+        onProjectStart();
+
+        boolean help = config.isMainThreadHelp && readyQueue != null;
+        if (help) {
+            readyQueue.setHelpingExecutor(mainExecutor);
+        }
+
+        if (remainingTaskCount.get() == 0) {
+            // every task was pruned or is lazy, no finishing task would ever end the project
+            notifyStageFinish();
+            onProjectFinish();
+        }
+
+        for (Task task : startTaskNodes) {
+            task.start();
+        }
+
+        long startDeadline = config.startDeadlineMillis > 0
+                ? projectStartTime + config.startDeadlineMillis : Long.MAX_VALUE;
+        try {
+            while (isMainTaskPending() || isWaitTaskPending()) {
+                long now = clock.uptimeMillis();
+                long deadline = Math.min(startDeadline, nextTaskDeadline());
+                if (now >= deadline) {
+                    if (now >= startDeadline) {
+                        onStartDeadline(now);
+                        break;
+                    }
+                    onTaskDeadline(now);
+                    continue;
+                }
+                long timeout = deadline == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - now;
+                try {
+                    if (help) {
+                        // only tasks start() waits for, never unrelated background work
+                        Task task = readyQueue.pollWaitPath();
+                        if (task != null) {
+                            task.runInternal();
+                            continue;
+                        }
+                    }
+                    if (isMainTaskPending() || help) {
+                        Runnable runnable = mainExecutor.poll(timeout);
+                        if (runnable != null) runnable.run();
+                    } else {
+                        waitCountDownLatch.await(timeout, TimeUnit.MILLISECONDS);
+                    }
+                } catch (InterruptedException e) {
+                    if (config.isStrictMode) {
+                        throw new RuntimeException(e);
+                    }
+                    break;
+                } catch (Throwable e) {
+                    if (config.isStrictMode) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        } finally {
+            // also when a deadline in strict mode throws, the app keeps running after it
+            if (help) {
+                readyQueue.setHelpingExecutor(null);
+            }
+
+            if (isMainTaskPending() || hasLazyMainTask) {
+                // start() returned early or lazy tasks may come later, the main looper runs them
+                mainExecutor.detach(getMainThreadExecutor());
+            }
+
+            if (deferredTasks.length > 0) {
+                idleExecutor.execute(releaseDeferred);
+            }
+        }
+
+        if (config.isStrictMode && (!result.isSuccess()
+                || !failureState.compareAndSet(FAILURE_OPEN, FAILURE_START_RETURNED))) {
+            // failed already, or the project finished failing between the check and the cas
+            throw result.toException();
+        }
+        return result;
+    }
+
+    private long nextTaskDeadline() {
+        long next = Long.MAX_VALUE;
+        for (Task task : waitTasks) {
+            long deadline = task.getDeadlineMillis();
+            if (deadline > 0 && !task.isWaitReleased()) {
+                next = Math.min(next, projectStartTime + deadline);
+            }
+        }
+        return next;
+    }
+
+    private void onTaskDeadline(long now) {
+        for (Task task : waitTasks) {
+            long deadline = task.getDeadlineMillis();
+            if (deadline > 0 && projectStartTime + deadline <= now && task.releaseWait()) {
+                waitCountDownLatch.countDown();
+                onOverrun(task, deadline, now - projectStartTime, true);
+            }
+        }
+    }
+
+    private void onStartDeadline(long now) {
+        result.setDeadlineHit();
+        for (Task task : waitTasks) {
+            if (task.releaseWait()) {
+                waitCountDownLatch.countDown();
+                onOverrun(task, config.startDeadlineMillis, now - projectStartTime, true);
+            }
+        }
+    }
+
+    private void onOverrun(Task task, long deadline, long elapsed, boolean onStartThread) {
+        if (!task.markOverrun()) {
+            return;
+        }
+        result.addOverrun(task);
+        if (profileStore != null) {
+            profileStore.recordOverrun(task.getTaskName());
+        }
+        String msg = "task " + task.getTaskName() + " overrun deadline " + deadline + "ms, elapsed " + elapsed + "ms";
+        if (config.overrunPolicy == Config.OVERRUN_POLICY_RETURN) {
+            logger.e(TAG, msg, null);
+            return;
+        }
+        for (OnTaskOverrunListener listener : overrunListeners) {
+            listener.onOverrun(task, deadline, elapsed);
+        }
+        if (config.overrunPolicy == Config.OVERRUN_POLICY_FAIL && config.isStrictMode && onStartThread) {
+            throw new RuntimeException(msg);
+        }
+        logger.e(TAG, msg, null);
+    }
+
+    /**
+     * @return stage named by some {@link Task#stages()}
+     */
+    public Stage getStage(String stageName) {
+        Stage stage = stages.get(stageName);
+        if (stage == null) {
+            throw new IllegalStateException("stage " + stageName + " has no task");
+        }
+        return stage;
+    }
+
+    public boolean isStageFinished(String stageName) {
+        return getStage(stageName).isFinished();
+    }
+
+    public void addOnStageListener(String stageName, OnStageListener listener) {
+        getStage(stageName).addListener(listener);
+    }
+
+    /**
+     * Block until every task of the stage is done, callable from any thread. An interrupt stops
+     * the wait early, the interrupt flag is set again and the stage may still be running.
+     * @return stage finished, false if the wait was interrupted before
+     */
+    public boolean awaitStage(String stageName) {
+        Stage stage = getStage(stageName);
+        try {
+            stage.await();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return stage.isFinished();
+        }
+    }
+
+    /**
+     * @return stage finished before the timeout passed
+     */
+    public boolean awaitStage(String stageName, long timeoutMillis) {
+        Stage stage = getStage(stageName);
+        try {
+            return stage.await(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return stage.isFinished();
+        }
+    }
+
+    /**
+     * Start a lazy task and the lazy tasks it depends on without waiting, a task already
+     * requested is not started again. Eager tasks are started by start() anyway.
+     */
+    public void request(String taskName) {
+        Task task = getTask(taskName);
+        if (task != null) {
+            request(task);
+        }
+    }
+
+    /**
+     * Block until the task finished, failed or was skipped, a lazy task is requested first. Called
+     * on the thread that ran start() it runs lazy main thread tasks itself. A task removed by
+     * {@link Task#isEnabled()} counts as done.
+     */
+    public void await(String taskName) {
+        await(taskName, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return task done before the timeout passed
+     */
+    public boolean await(String taskName, long timeoutMillis) {
+        Task task = getTask(taskName);
+        if (task == null) {
+            return true;
+        }
+        request(task);
+        if (task.isDone()) {
+            return true;
+        }
+        long deadline = timeoutMillis == Long.MAX_VALUE
+                ? Long.MAX_VALUE : clock.uptimeMillis() + timeoutMillis;
+        boolean onStartThread = Thread.currentThread() == startThread;
+        awaitingCount.incrementAndGet();
+        try {
+            while (!task.isDone()) {
+                long now = clock.uptimeMillis();
+                if (now >= deadline) {
+                    return false;
+                }
+                long timeout = deadline == Long.MAX_VALUE ? 0 : deadline - now;
+                if (onStartThread && mainExecutor != null && !mainExecutor.isDetached()) {
+                    // await() called from a main thread task while start() still drains the queue
+                    Runnable runnable = mainExecutor.poll(timeout == 0 ? Long.MAX_VALUE : timeout);
+                    if (runnable != null) runnable.run();
+                    continue;
+                }
+                if (onStartThread && runWaitingLazyMainTask()) {
+                    continue;
+                }
+                synchronized (lazyLock) {
+                    if (!task.isDone() && !(onStartThread && hasWaitingLazyMainTask())) {
+                        lazyLock.wait(timeout);
+                    }
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return task.isDone();
+        } finally {
+            awaitingCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Result handle of the task, usable before start() to compose on it. A pruned task is done
+     * with a null result, a lazy task only completes once requested.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> TaskFuture<T> getFuture(String taskName) {
+        Task task = graph.findTask(taskName);
+        if (task == null) {
+            if (graph.isPruned(taskName)) {
+                return TaskFuture.completed(taskName, null);
+            }
+            throw new IllegalStateException(taskName + " not added");
+        }
+        return (TaskFuture<T>) task.getFuture();
+    }
+
+    /**
+     * @return null if the task was pruned
+     */
+    private Task getTask(String taskName) {
+        if (startThread == null) {
+            throw new IllegalStateException("call start() before requesting task " + taskName);
+        }
+        Task task = graph.findTask(taskName);
+        if (task == null && !graph.isPruned(taskName)) {
+            throw new IllegalStateException(taskName + " not added");
+        }
+        return task;
+    }
+
+    /**
+     * Lazy dependencies are requested first, the task itself starts once the request token and
+     * its dependencies are released.
+     */
+    private void request(Task task) {
+        if (!task.isLazy() || !task.markRequested()) {
+            return;
+        }
+        Task[] tasks = graph.getTasks();
+        int[] parentOffsets = graph.getParentOffsets();
+        int[] parentIds = graph.getParentIds();
+        int id = task.getId();
+        for (int i = parentOffsets[id]; i < parentOffsets[id + 1]; i++) {
+            request(tasks[parentIds[i]]);
+        }
+        if (pendingDependencies.decrementAndGet(id) == 0) {
+            task.start();
+        }
+    }
+
+    /**
+     * The looper copy of a lazy main thread task is posted too, whichever runs second returns.
+     */
+    private boolean runWaitingLazyMainTask() {
+        for (Task task : graph.getTasks()) {
+            if (task.isLazy() && task.isMustRunMainThread() && task.isWaiting()) {
+                task.runInternal();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasWaitingLazyMainTask() {
+        if (!hasLazyMainTask) {
+            return false;
+        }
+        for (Task task : graph.getTasks()) {
+            if (task.isLazy() && task.isMustRunMainThread() && task.isWaiting()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void wakeAwaiting() {
+        if (awaitingCount.get() == 0) {
+            return;
+        }
+        synchronized (lazyLock) {
+            lazyLock.notifyAll();
+        }
+        if (mainExecutor != null && !mainExecutor.isDetached()) {
+            mainExecutor.wakeUp();
+        }
+    }
+
+    public StartupResult getResult() {
+        return result;
+    }
+
+    private Executor getMainThreadExecutor() {
+        if (mainThreadExecutor == null) {
+            mainThreadExecutor = platform.createMainThreadExecutor();
+        }
+        return mainThreadExecutor;
+    }
+
+    private boolean isMainTaskPending() {
+        return atomicMainTaskCount != null && atomicMainTaskCount.get() > 0;
+    }
+
+    private boolean isWaitTaskPending() {
+        return waitCountDownLatch != null && waitCountDownLatch.getCount() > 0;
+    }
+
+    private void onProjectStart() {
+        if (projectListeners != null && !projectListeners.isEmpty()) {
+            for (OnProjectListener listener : projectListeners) {
+                listener.onProjectStart();
+            }
+        }
+    }
+
+    private void onProjectFinish() {
+        metricsRecorder.onProjectFinish();
+        if (projectListeners != null && !projectListeners.isEmpty()) {
+            for (OnProjectListener listener : projectListeners) {
+                listener.onProjectFinish();
+            }
+        }
+
+        if (profileStore != null) {
+            profileStore.recordLaunch(result.isDeadlineHit());
+            saveProfile();
+        }
+
+        if (traceWriter != null) {
+            writeTrace();
+        }
+
+        if (config.isLogReport) {
+            logReport();
+        }
+
+        if (regressionChecker != null) {
+            checkRegression();
+        }
+
+        if (threadPoolExecutor instanceof ManagedExecutor) {
+            ((ManagedExecutor) threadPoolExecutor).onProjectFinish();
+        }
+
+        if (config.isStrictMode && !result.isSuccess()
+                && !failureState.compareAndSet(FAILURE_OPEN, FAILURE_PROJECT_FINISHED)) {
+            // start() returned before the failure, never throw on the thread finishing the project
+            logger.e(TAG, "startup fail after start() returned " + result, null);
+        }
+
+        for (Task task : graph.getTasks()) {
+            if (!task.isDone() && !task.isLazy()) {
+                logger.e(TAG, "task " + task.getTaskName() + "not execute", null);
+            }
+        }
+    }
+
+    public void addOnProjectExecuteListener(OnProjectListener listener) {
+        projectListeners.add(listener);
+    }
+
+    public static class Builder {
+
+        private final List<OnProjectListener> projectListeners = new ArrayList<OnProjectListener>();
+        private ThreadPoolExecutor threadPoolExecutor;
+        private final Map<String, Executor> executors = new HashMap<>();
+        private final List<TaskListener> taskListeners = new ArrayList<>();
+        private final Map<String, Task> taskMap = new HashMap<>();
+        private Config config;
+        private List<Task> tasks;
+        private Logger logger;
+        private TaskProfileStore profileStore;
+        private TaskRegistry taskRegistry;
+        private final List<OnTaskOverrunListener> overrunListeners = new ArrayList<>();
+        private Executor mainThreadExecutor;
+        private IdleScheduler idleScheduler;
+        private Clock clock;
+        private Platform platform;
+        private final Map<String, List<OnStageListener>> stageListeners = new HashMap<>();
+        private File traceFile;
+        private RegressionChecker regressionChecker;
+        private OnRegressionListener regressionListener;
+
+        public DGAppStartup create() {
+            if (config == null) {
+                config = new Config();
+            }
+            platform = Platform.get();
+            if (logger == null) {
+                logger = platform.createLogger();
+            }
+            if (clock == null) {
+                clock = platform.getClock();
+            }
+            if (profileStore != null) {
+                try {
+                    profileStore.load();
+                } catch (Throwable e) {
+                    logger.e(TAG, "load profile fail " + e.getMessage(), e);
+                }
+            }
+            TaskGraph graph;
+            if (taskRegistry != null) {
+                if (tasks != null) {
+                    throw new IllegalStateException("task registry can not mix with added task");
+                }
+                graph = TaskGraph.link(taskRegistry);
+            } else {
+                graph = TaskGraph.compile(tasks, taskMap);
+            }
+            if (threadPoolExecutor == null) {
+                threadPoolExecutor = ManagedExecutor.create(graph, executors.containsKey(Task.EXECUTION_IO));
+            }
+            return new DGAppStartup(this, graph);
+        }
+
+        public Builder addOnProjectExecuteListener(OnProjectListener listener) {
+            projectListeners.add(listener);
+            return Builder.this;
+        }
+
+        public Builder addTaskListener(TaskListener listener) {
+            taskListeners.add(listener);
+            return Builder.this;
+        }
+
+        /**
+         * @param stageName name from {@link Task#stages()}, create() throws when no task names it
+         */
+        public Builder addOnStageListener(String stageName, OnStageListener listener) {
+            List<OnStageListener> listeners = stageListeners.get(stageName);
+            if (listeners == null) {
+                listeners = new ArrayList<>();
+                stageListeners.put(stageName, listeners);
+            }
+            listeners.add(listener);
+            return Builder.this;
+        }
+
+        public Builder addOnTaskOverrunListener(OnTaskOverrunListener listener) {
+            overrunListeners.add(listener);
+            return Builder.this;
+        }
+
+        /**
+         * Runs main thread tasks left when start() returned on a deadline, default comes from the
+         * {@link Platform}, the main looper on Android.
+         */
+        public Builder setMainThreadExecutor(Executor mainThreadExecutor) {
+            this.mainThreadExecutor = mainThreadExecutor;
+            return Builder.this;
+        }
+
+        /**
+         * Signal releasing deferred tasks, default comes from the {@link Platform}, on Android it waits
+         * for the next frame and an idle main looper.
+         */
+        public Builder setIdleScheduler(IdleScheduler idleScheduler) {
+            this.idleScheduler = idleScheduler;
+            return Builder.this;
+        }
+
+        public Builder setConfig(Config config) {
+            this.config = config;
+            return Builder.this;
+        }
+
+        /**
+         * Time source for deadlines, idle slices and task timing, default is the platform clock.
+         */
+        public Builder setClock(Clock clock) {
+            this.clock = clock;
+            return Builder.this;
+        }
+
+        public Builder setLogger(Logger logger) {
+            this.logger = logger;
+            return Builder.this;
+        }
+
+        public Builder add(Task task) {
+            Task addedTask = taskMap.get(task.getTaskName());
+            if (addedTask != null) {
+                String ep = task.getClass().getSimpleName() + " " + task.getTaskName()
+                        + addedTask.getClass().getSimpleName() + " " + addedTask.getTaskName();
+                throw new RuntimeException(ep + " mu task");
+            }
+            if (task.getTaskName() == null) {
+                throw new IllegalStateException("task name null");
+            }
+            if (tasks == null) {
+                tasks = new ArrayList<>();
+            }
+            tasks.add(task);
+            taskMap.put(task.getTaskName(), task);
+            return Builder.this;
+        }
+
+        /**
+         * Record task run time across launches, historical durations feed critical path scheduling.
+         */
+        public Builder setProfileStore(TaskProfileStore profileStore) {
+            this.profileStore = profileStore;
+            return Builder.this;
+        }
+
+        /**
+         * Write a Chrome Trace Event JSON of the launch after the project finished: task spans per
+         * thread, the wait from ready to start and an arrow per dependency, open it in Perfetto.
+         */
+        public Builder setTraceFile(File traceFile) {
+            this.traceFile = traceFile;
+            return Builder.this;
+        }
+
+        /**
+         * Check every launch against the baseline of the checker after the project finished, the
+         * listener is only called when a task regressed.
+         */
+        public Builder setRegressionChecker(RegressionChecker checker, OnRegressionListener listener) {
+            this.regressionChecker = checker;
+            this.regressionListener = listener;
+            return Builder.this;
+        }
+
+        /**
+         * Use the graph generated from {@link com.caij.app.startup.annotation.StartupTask} instead of
+         * {@link #add(Task)}.
+         */
+        public Builder setTaskRegistry(TaskRegistry taskRegistry) {
+            this.taskRegistry = taskRegistry;
+            return Builder.this;
+        }
+
+        /**
+         * Default executor of every execution class without its own, see {@link #setExecutor(String, Executor)}.
+         * Without it the startup runs its own pool with a thread per core, which
+         * grows while io tasks block and lets its threads die after the project finished.
+         */
+        public Builder setExecutorService(ThreadPoolExecutor threadPoolExecutor) {
+            this.threadPoolExecutor = threadPoolExecutor;
+            return Builder.this;
+        }
+
+        /**
+         * Route tasks of one {@link Task#getExecutionClass()} to their own executor, e.g.
+         * {@link StartupExecutors#newIoExecutor()} for {@link Task#EXECUTION_IO}, so blocking tasks
+         * never occupy the threads cpu tasks on the critical path need.
+         */
+        public Builder setExecutor(String executionClass, Executor executor) {
+            executors.put(executionClass, executor);
+            return Builder.this;
+        }
+    }
+
+    /**
+     * Release everything a finished or skipped task holds.
+     */
+    private void onTaskDone(Task task) {
+        wakeAwaiting();
+        if (task.isLazy()) {
+            return;
+        }
+        int id = task.getId();
+        for (int i = stageOffsets[id]; i < stageOffsets[id + 1]; i++) {
+            stageArray[stageIds[i]].onTaskDone();
+        }
+        if (task.isMustRunMainThread() && !task.isDeferred()) {
+            atomicMainTaskCount.decrementAndGet();
+        }
+        if (task.isWaitOnMainThread() && task.releaseWait()) {
+            waitCountDownLatch.countDown();
+            if (config.isMainThreadHelp && mainExecutor != null) {
+                // wake up the helping main thread, it may wait for this task
+                mainExecutor.wakeUp();
+            }
+        }
+
+        if (task.isInStage() && !task.isDeferred()) {
+            int size = remainingStageTaskCount.decrementAndGet();
+            if (size == 0) {
+                notifyStageFinish();
+            }
+        }
+
+        int size = remainingTaskCount.decrementAndGet();
+        if (size == 0) {
+            onProjectFinish();
+        }
+    }
+
+    private class TaskStateListener implements TaskListener {
+
+        @Override
+        public void onWaitRunning(Task task) {
+            metricsRecorder.onReady(task);
+        }
+
+        @Override
+        public void onStart(Task task) {
+            metricsRecorder.onStart(task);
+            for (TaskListener taskListener : taskListeners) {
+                taskListener.onStart(task);
+            }
+        }
+
+        @Override
+        public void onFinish(Task task, long dw, long df) {
+            metricsRecorder.onFinish(task);
+            for (TaskListener taskListener : taskListeners) {
+                taskListener.onFinish(task, dw, df);
+            }
+
+            if (profileStore != null) {
+                profileStore.record(task.getTaskName(), metricsRecorder.getRunNanos(task));
+            }
+
+            long deadline = task.getDeadlineMillis();
+            if (deadline > 0 && !task.isOverrun()) {
+                long elapsed = clock.uptimeMillis() - projectStartTime;
+                if (elapsed > deadline) {
+                    onOverrun(task, deadline, elapsed, false);
+                }
+            }
+
+            onTaskDone(task);
+        }
+
+    }
+}
@@ -0,0 +1,68 @@
+package com.caij.app.startup;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs commands in idle slices of the main thread, a slice stops once it took
+ * {@link Config#idleSliceMillis} and the rest waits for the next idle time.
+ */
+class IdleExecutor implements Executor {
+
+    private final IdleScheduler scheduler;
+    private final Clock clock;
+    private final long sliceMillis;
+    private final ArrayDeque<Runnable> commands = new ArrayDeque<>();
+    private boolean scheduled;
+
+    private final Runnable slice = new Runnable() {
+        @Override
+        public void run() {
+            runSlice();
+        }
+    };
+
+    IdleExecutor(IdleScheduler scheduler, Clock clock, long sliceMillis) {
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.sliceMillis = sliceMillis;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        synchronized (this) {
+            commands.offer(command);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        scheduler.scheduleIdle(slice);
+    }
+
+    private void runSlice() {
+        long sliceEnd = clock.uptimeMillis() + sliceMillis;
+        while (true) {
+            Runnable command;
+            synchronized (this) {
+                command = commands.poll();
+                if (command == null) {
+                    scheduled = false;
+                    return;
+                }
+            }
+            // at least one command per slice, a long task still makes progress
+            command.run();
+            if (clock.uptimeMillis() >= sliceEnd) {
+                break;
+            }
+        }
+        synchronized (this) {
+            if (commands.isEmpty()) {
+                scheduled = false;
+                return;
+            }
+        }
+        scheduler.scheduleIdle(slice);
+    }
+}
@@ -0,0 +1,14 @@
+package com.caij.app.startup;
+
+/**
+ * Signals that the app is idle enough to run deferred tasks, see {@link Task#isDeferred()}. On
+ * Android the default waits for the next frame and an idle main looper, JVM tests can use
+ * {@link ManualIdleScheduler}.
+ */
+public interface IdleScheduler {
+
+    /**
+     * Run the callback once on the main thread at the next idle time.
+     */
+    void scheduleIdle(Runnable callback);
+}
@@ -0,0 +1,77 @@
+package com.caij.app.startup;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+
+/**
+ * Plain JVM without a main looper, the thread that called start() is the main thread while it
+ * blocks, afterwards one shared daemon thread takes its role and idle time starts right away.
+ */
+class JvmPlatform extends Platform {
+
+    private static final Clock CLOCK = new Clock() {
+        @Override
+        public long uptimeMillis() {
+            return System.nanoTime() / 1000000;
+        }
+    };
+
+    @Override
+    public Clock getClock() {
+        return CLOCK;
+    }
+
+    /**
+     * Goes through java.util.logging, debug lines are FINE and hidden unless the host enables them.
+     */
+    @Override
+    public Logger createLogger() {
+        return new JulLogger();
+    }
+
+    private Executor mainThreadExecutor;
+
+    @Override
+    public synchronized Executor createMainThreadExecutor() {
+        if (mainThreadExecutor == null) {
+            mainThreadExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, DGAppStartup.TAG + "-main");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return mainThreadExecutor;
+    }
+
+    @Override
+    public IdleScheduler createIdleScheduler() {
+        final Executor executor = createMainThreadExecutor();
+        return new IdleScheduler() {
+            @Override
+            public void scheduleIdle(Runnable callback) {
+                executor.execute(callback);
+            }
+        };
+    }
+
+    private static final class JulLogger implements Logger {
+
+        @Override
+        public void e(String tag, String msg, Throwable e) {
+            java.util.logging.Logger.getLogger(tag).log(Level.SEVERE, msg, e);
+        }
+
+        @Override
+        public void d(String tag, String msg) {
+            java.util.logging.Logger logger = java.util.logging.Logger.getLogger(tag);
+            if (logger.isLoggable(Level.FINE)) {
+                logger.fine(msg);
+            }
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.caij.app.startup;
 
-import android.util.Log;
-
 public interface Logger {
 
     public void e(String tag, String msg, Throwable e);
@@ -9,16 +7,21 @@ public interface Logger {
     public void d(String tag, String msg);
 
 
+    /**
+     * Logs through {@link Platform#createLogger()}, logcat on Android and java.util.logging elsewhere.
+     */
     public static class DefaultLogger implements Logger {
 
+        private final Logger delegate = Platform.get().createLogger();
+
         @Override
         public void e(String tag, String msg, Throwable e) {
-            Log.e(tag, msg);
+            delegate.e(tag, msg, e);
         }
 
         @Override
         public void d(String tag, String msg) {
-            Log.d(tag, msg);
+            delegate.d(tag, msg);
         }
     }
 }
@@ -0,0 +1,100 @@
+package com.caij.app.startup;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * Queue drained by the thread blocked in {@link DGAppStartup#start()}. It keeps a growing array
+ * instead of linked nodes, so posting to it does not allocate once it reached its size.
+ */
+public class MainExecutor implements Executor {
+
+    private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+    private Executor target;
+    private boolean woken;
+
+    public MainExecutor() {
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Executor target;
+        synchronized (this) {
+            target = this.target;
+            if (target == null) {
+                queue.offer(command);
+                notifyAll();
+                return;
+            }
+        }
+        target.execute(command);
+    }
+
+    /**
+     * Make a pending or the next {@link #poll(long)} return right away without queueing anything.
+     */
+    public synchronized void wakeUp() {
+        woken = true;
+        notifyAll();
+    }
+
+    public synchronized Runnable take() throws InterruptedException {
+        Runnable runnable;
+        while ((runnable = queue.poll()) == null) {
+            wait();
+        }
+        return runnable;
+    }
+
+    /**
+     * @return next command, null after the timeout passed or {@link #wakeUp()} was called
+     */
+    public synchronized Runnable poll(long timeoutMillis) throws InterruptedException {
+        long deadline = timeoutMillis == Long.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            Runnable runnable = queue.poll();
+            if (runnable != null) {
+                return runnable;
+            }
+            if (woken) {
+                woken = false;
+                return null;
+            }
+            if (deadline == Long.MAX_VALUE) {
+                wait();
+            } else {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return null;
+                }
+                wait(remaining);
+            }
+        }
+    }
+
+    /**
+     * @return commands go to the detach target instead of the queue
+     */
+    public synchronized boolean isDetached() {
+        return target != null;
+    }
+
+    /**
+     * Nobody drains this executor any more, hand queued and later commands to the target.
+     */
+    public void detach(Executor target) {
+        synchronized (this) {
+            this.target = target;
+        }
+        Runnable runnable;
+        while (true) {
+            synchronized (this) {
+                runnable = queue.poll();
+            }
+            if (runnable == null) {
+                return;
+            }
+            target.execute(runnable);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.caij.app.startup;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool owned by the startup when no executor service was set. It keeps one thread per core,
+ * gains a thread while an {@link Task#EXECUTION_IO} task blocks one and lets every idle thread
+ * die once the project finished.
+ */
+class ManagedExecutor extends ThreadPoolExecutor {
+
+    private static final long KEEP_ALIVE_MILLIS = 1000;
+
+    private final int poolSize;
+    private int blockingCount;
+
+    private ManagedExecutor(int poolSize, int maxPoolSize) {
+        super(poolSize, maxPoolSize, KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+
+                    private final AtomicInteger threadId = new AtomicInteger(0);
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r, DGAppStartup.TAG + "-worker-" + threadId.getAndIncrement());
+                    }
+                });
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Compute tasks share the cores, every io task left on this pool may block one thread more
+     * while it runs.
+     * @param ioRouted {@link Task#EXECUTION_IO} tasks go to an executor of their own
+     */
+    static ManagedExecutor create(TaskGraph graph, boolean ioRouted) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int poolSize = Math.max(1, Math.min(cores, graph.getTaskCount()));
+        int ioTaskCount = 0;
+        if (!ioRouted) {
+            for (Task task : graph.getTasks()) {
+                if (Task.EXECUTION_IO.equals(task.getExecutionClass()) && !(task instanceof CallbackTask)) {
+                    ioTaskCount++;
+                }
+            }
+        }
+        return new ManagedExecutor(poolSize, poolSize + ioTaskCount);
+    }
+
+    /**
+     * Raising the core size starts a thread for a queued worker right away.
+     */
+    synchronized void beginBlocking() {
+        blockingCount++;
+        setCorePoolSize(Math.min(getMaximumPoolSize(), poolSize + blockingCount));
+    }
+
+    synchronized void endBlocking() {
+        blockingCount--;
+        setCorePoolSize(Math.min(getMaximumPoolSize(), poolSize + blockingCount));
+    }
+
+    /**
+     * Lazy tasks may still come, so the pool stays usable and only idle threads go away.
+     */
+    void onProjectFinish() {
+        allowCoreThreadTimeOut(true);
+    }
+}
@@ -0,0 +1,37 @@
+package com.caij.app.startup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Idle signal fired by hand, for JVM tests or apps with their own notion of idle.
+ */
+public class ManualIdleScheduler implements IdleScheduler {
+
+    private final List<Runnable> callbacks = new ArrayList<>();
+
+    @Override
+    public synchronized void scheduleIdle(Runnable callback) {
+        callbacks.add(callback);
+    }
+
+    /**
+     * Run the callbacks scheduled so far on the calling thread, one idle slice.
+     * @return callbacks were scheduled again meanwhile
+     */
+    public boolean runIdle() {
+        List<Runnable> pending;
+        synchronized (this) {
+            pending = new ArrayList<>(callbacks);
+            callbacks.clear();
+        }
+        for (Runnable callback : pending) {
+            callback.run();
+        }
+        return hasPendingIdle();
+    }
+
+    public synchronized boolean hasPendingIdle() {
+        return !callbacks.isEmpty();
+    }
+}
@@ -0,0 +1,97 @@
+package com.caij.app.startup;
+
+/**
+ * Records ready, start and finish of every task with {@link System#nanoTime()} into arrays
+ * allocated in {@link DGAppStartup.Builder#create()} and indexed by task id. A slot is only written
+ * by the thread owning the task at that moment, nothing is locked or allocated while tasks run. The
+ * counters releasing dependents publish the writes to the thread finishing the project.
+ */
+class MetricsRecorder {
+
+    private final Task[] tasks;
+    private final long[] readyNanos;
+    private final long[] startNanos;
+    private final long[] finishNanos;
+    private final long[] threadIds;
+    private final Thread[] threads;
+    private long projectStartNanos;
+    private volatile long projectFinishNanos;
+    private StartupMetrics snapshot;
+
+    MetricsRecorder(TaskGraph graph) {
+        this.tasks = graph.getTasks();
+        int size = tasks.length;
+        this.readyNanos = new long[size];
+        this.startNanos = new long[size];
+        this.finishNanos = new long[size];
+        this.threadIds = new long[size];
+        this.threads = new Thread[size];
+    }
+
+    void onProjectStart() {
+        projectStartNanos = System.nanoTime();
+    }
+
+    void onProjectFinish() {
+        projectFinishNanos = System.nanoTime();
+    }
+
+    void onReady(Task task) {
+        readyNanos[task.getId()] = System.nanoTime();
+    }
+
+    void onStart(Task task) {
+        int id = task.getId();
+        startNanos[id] = System.nanoTime();
+        Thread thread = Thread.currentThread();
+        threadIds[id] = thread.getId();
+        threads[id] = thread;
+    }
+
+    void onFinish(Task task) {
+        finishNanos[task.getId()] = System.nanoTime();
+    }
+
+    /**
+     * @return run time of a task that just finished, called on the thread that ran it
+     */
+    long getRunNanos(Task task) {
+        int id = task.getId();
+        return finishNanos[id] - startNanos[id];
+    }
+
+    /**
+     * Copy the buffers on first use, off the launch path. Tasks finishing after the project, like
+     * lazy ones, are left out.
+     */
+    synchronized StartupMetrics snapshot() {
+        if (projectFinishNanos == 0) {
+            return null;
+        }
+        if (snapshot != null) {
+            return snapshot;
+        }
+        int size = tasks.length;
+        long[] readyNanos = new long[size];
+        long[] startNanos = new long[size];
+        long[] finishNanos = new long[size];
+        long[] threadIds = new long[size];
+        String[] taskNames = new String[size];
+        String[] threadNames = new String[size];
+        for (int id = 0; id < size; id++) {
+            taskNames[id] = tasks[id].getTaskName();
+            long finish = this.finishNanos[id];
+            if (finish == 0 || finish - projectFinishNanos > 0) {
+                continue;
+            }
+            readyNanos[id] = this.readyNanos[id];
+            startNanos[id] = this.startNanos[id];
+            finishNanos[id] = finish;
+            threadIds[id] = this.threadIds[id];
+            threadNames[id] = threads[id].getName();
+        }
+        snapshot = new StartupMetrics(projectStartNanos, projectFinishNanos, taskNames, readyNanos,
+                startNanos, finishNanos, threadIds, threadNames);
+        return snapshot;
+    }
+}
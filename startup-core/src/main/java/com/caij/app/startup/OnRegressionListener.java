@@ -0,0 +1,9 @@
+package com.caij.app.startup;
+
+public interface OnRegressionListener {
+
+    /**
+     * Called on a background thread after the project finished, only when something regressed.
+     */
+    void onRegression(RegressionReport report);
+}
@@ -0,0 +1,11 @@
+package com.caij.app.startup;
+
+public interface OnStageListener {
+
+    /**
+     * Called on the thread that finished the last task of the stage, or right away when the
+     * listener is added to a finished stage.
+     * @param stageName name from {@link Task#stages()}
+     */
+    void onStageFinish(String stageName);
+}
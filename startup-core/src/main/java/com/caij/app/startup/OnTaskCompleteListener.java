@@ -0,0 +1,9 @@
+package com.caij.app.startup;
+
+public interface OnTaskCompleteListener<T> {
+
+    /**
+     * @param future done, see {@link TaskFuture#isSuccess()}
+     */
+    void onComplete(TaskFuture<T> future);
+}
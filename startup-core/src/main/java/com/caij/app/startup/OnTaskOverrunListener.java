@@ -0,0 +1,11 @@
+package com.caij.app.startup;
+
+public interface OnTaskOverrunListener {
+
+    /**
+     * @param task task still running or finished too late
+     * @param deadline budget in milliseconds after {@link DGAppStartup#start()}
+     * @param elapsed milliseconds after {@link DGAppStartup#start()} when the overrun was detected
+     */
+    void onOverrun(Task task, long deadline, long elapsed);
+}
@@ -0,0 +1,54 @@
+package com.caij.app.startup;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Everything the scheduler needs from the runtime. The Android adapter module provides
+ * {@code com.caij.app.startup.AndroidPlatform}, found by name so the core never links against
+ * android classes, a plain JVM falls back to {@link JvmPlatform}.
+ */
+public abstract class Platform {
+
+    private static final String ANDROID_PLATFORM = "com.caij.app.startup.AndroidPlatform";
+
+    private static volatile Platform platform;
+
+    public static Platform get() {
+        Platform current = platform;
+        if (current == null) {
+            synchronized (Platform.class) {
+                current = platform;
+                if (current == null) {
+                    current = findPlatform();
+                    platform = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static Platform findPlatform() {
+        try {
+            Class<?> androidPlatform = Class.forName(ANDROID_PLATFORM);
+            return (Platform) androidPlatform.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return new JvmPlatform();
+        } catch (Exception e) {
+            throw new IllegalStateException("create " + ANDROID_PLATFORM + " fail", e);
+        }
+    }
+
+    public abstract Clock getClock();
+
+    public abstract Logger createLogger();
+
+    /**
+     * @return runs main thread tasks left after start() returned and lazy main thread tasks
+     */
+    public abstract Executor createMainThreadExecutor();
+
+    /**
+     * @return signal releasing deferred tasks
+     */
+    public abstract IdleScheduler createIdleScheduler();
+}
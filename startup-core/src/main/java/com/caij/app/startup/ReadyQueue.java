@@ -0,0 +1,75 @@
+package com.caij.app.startup;
+
+import java.util.Comparator;
+import java.util.concurrent.Executor;
+
+/**
+ * Priority ordered queue of all ready background tasks. Every offer only hands a shared worker
+ * to the executor, the worker pulls the best task when a thread is actually free, so priority is
+ * honored across the whole graph instead of inside one batch of siblings. The order itself is
+ * {@link TaskQueue}'s.
+ */
+class ReadyQueue {
+
+    private final TaskQueue queue;
+    private final Executor executor;
+    private final ManagedExecutor managedExecutor;
+    private volatile MainExecutor helpingExecutor;
+
+    private final Runnable worker = new Runnable() {
+        @Override
+        public void run() {
+            Task task = poll();
+            if (task == null) {
+                return;
+            }
+            if (managedExecutor != null && task.isBlocking()) {
+                // another thread takes over the queue while this one waits on io
+                managedExecutor.beginBlocking();
+                try {
+                    task.runInternal();
+                } finally {
+                    managedExecutor.endBlocking();
+                }
+            } else {
+                task.runInternal();
+            }
+        }
+    };
+
+    ReadyQueue(Executor executor, Comparator<Task> comparator, int taskCount) {
+        this.executor = executor;
+        this.managedExecutor = executor instanceof ManagedExecutor ? (ManagedExecutor) executor : null;
+        this.queue = new TaskQueue(comparator, taskCount);
+    }
+
+    void offer(Task task) {
+        synchronized (this) {
+            queue.offer(task);
+        }
+        executor.execute(worker);
+        MainExecutor helpingExecutor = this.helpingExecutor;
+        if (helpingExecutor != null && task.isOnWaitPath()) {
+            helpingExecutor.wakeUp();
+        }
+    }
+
+    synchronized Task poll() {
+        return queue.poll();
+    }
+
+    /**
+     * @return best ready task on the path to a main thread wait, null if there is none
+     */
+    synchronized Task pollWaitPath() {
+        return queue.pollWaitPath();
+    }
+
+    /**
+     * While set, every ready wait path task wakes the thread draining this executor, it then takes
+     * the task with {@link #pollWaitPath()}. Nothing is queued, offering still does not allocate.
+     */
+    void setHelpingExecutor(MainExecutor helpingExecutor) {
+        this.helpingExecutor = helpingExecutor;
+    }
+}
@@ -0,0 +1,315 @@
+package com.caij.app.startup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares per task run time and queue wait of a launch against a baseline kept in a small binary
+ * file, using median and median absolute deviation so a few noisy baseline launches do not move the
+ * bar. A value regresses only when it is above every threshold: {@link #setMadThreshold(double)}
+ * scaled deviations, {@link #setMinRatio(double)} of the median and {@link #setMinNanos(long)}.
+ * <p>
+ * The baseline only changes through {@link #addBaseline(StartupMetrics)}, record it from known good
+ * launches, e.g. the previous release, and {@link #save()} it.
+ */
+public class RegressionChecker {
+
+    private static final int MAGIC = 0x44475247;
+    private static final int VERSION = 1;
+    /**
+     * MAD of a normal distribution times this is its standard deviation
+     */
+    private static final double MAD_SCALE = 1.4826;
+
+    private final File file;
+    private final Map<String, long[][]> baselines = new LinkedHashMap<>();
+    private final Map<String, Integer> sampleCounts = new LinkedHashMap<>();
+    private int maxSamples = 50;
+    private int minSamples = 5;
+    private double madThreshold = 3;
+    private double minRatio = 0.2;
+    private long minNanos = 1000000;
+    private boolean loaded;
+
+    /**
+     * @param file baseline file, may be null to only keep the baseline in memory
+     */
+    public RegressionChecker(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @param maxSamples launches kept per task, the oldest one is dropped first. Set it before
+     * anything is loaded or added
+     */
+    public synchronized RegressionChecker setMaxSamples(int maxSamples) {
+        this.maxSamples = maxSamples;
+        return this;
+    }
+
+    /**
+     * @param minSamples baseline launches a task needs before it is checked
+     */
+    public synchronized RegressionChecker setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+        return this;
+    }
+
+    /**
+     * @param madThreshold scaled median absolute deviations a value must be above the median
+     */
+    public synchronized RegressionChecker setMadThreshold(double madThreshold) {
+        this.madThreshold = madThreshold;
+        return this;
+    }
+
+    /**
+     * @param minRatio part of the median a value must be above it, 0.2 is 20% slower
+     */
+    public synchronized RegressionChecker setMinRatio(double minRatio) {
+        this.minRatio = minRatio;
+        return this;
+    }
+
+    /**
+     * @param minNanos absolute difference ignored as noise, protects tasks of a few microseconds
+     */
+    public synchronized RegressionChecker setMinNanos(long minNanos) {
+        this.minNanos = minNanos;
+        return this;
+    }
+
+    /**
+     * Add every task run before the project finished to the baseline.
+     */
+    public synchronized void addBaseline(StartupMetrics metrics) {
+        for (int id = 0; id < metrics.getTaskCount(); id++) {
+            if (metrics.isRun(id)) {
+                addBaseline(metrics.getTaskName(id), metrics.getRunNanos(id), metrics.getQueueNanos(id));
+            }
+        }
+    }
+
+    public synchronized void addBaseline(String taskName, long runNanos, long queueNanos) {
+        long[][] samples = baselines.get(taskName);
+        int count = sampleCounts.containsKey(taskName) ? sampleCounts.get(taskName) : 0;
+        if (samples == null) {
+            samples = new long[2][maxSamples];
+            baselines.put(taskName, samples);
+        }
+        int index = count % samples[0].length;
+        samples[0][index] = runNanos;
+        samples[1][index] = queueNanos;
+        sampleCounts.put(taskName, count + 1);
+    }
+
+    /**
+     * @return baseline launches recorded for the task
+     */
+    public synchronized int getSampleCount(String taskName) {
+        Integer count = sampleCounts.get(taskName);
+        return count == null ? 0 : Math.min(count, baselines.get(taskName)[0].length);
+    }
+
+    public RegressionReport check(StartupMetrics metrics) {
+        int count = metrics.getTaskCount();
+        List<String> taskNames = new ArrayList<>(count);
+        List<long[]> values = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            if (metrics.isRun(id)) {
+                taskNames.add(metrics.getTaskName(id));
+                values.add(new long[]{metrics.getRunNanos(id), metrics.getQueueNanos(id)});
+            }
+        }
+        return checkAll(taskNames, values);
+    }
+
+    /**
+     * Check one launch given as run time and queue wait per task, for synthetic timings.
+     */
+    public RegressionReport check(String taskName, long runNanos, long queueNanos) {
+        List<long[]> values = new ArrayList<>(1);
+        values.add(new long[]{runNanos, queueNanos});
+        return checkAll(Collections.singletonList(taskName), values);
+    }
+
+    private synchronized RegressionReport checkAll(List<String> taskNames, List<long[]> values) {
+        List<RegressionReport.Regression> regressions = new ArrayList<>();
+        int checked = 0;
+        for (int i = 0; i < taskNames.size(); i++) {
+            String taskName = taskNames.get(i);
+            int size = getSampleCount(taskName);
+            if (size == 0 || size < minSamples) {
+                continue;
+            }
+            checked++;
+            long[][] samples = baselines.get(taskName);
+            for (int metric = 0; metric < 2; metric++) {
+                RegressionReport.Regression regression = check(taskName, metric,
+                        values.get(i)[metric], Arrays.copyOf(samples[metric], size));
+                if (regression != null) {
+                    regressions.add(regression);
+                }
+            }
+        }
+        return new RegressionReport(checked, regressions);
+    }
+
+    private RegressionReport.Regression check(String taskName, int metric, long value, long[] samples) {
+        long median = median(samples);
+        long[] deviations = new long[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            deviations[i] = Math.abs(samples[i] - median);
+        }
+        long mad = median(deviations);
+        long difference = value - median;
+        if (difference <= minNanos
+                || difference <= madThreshold * MAD_SCALE * mad
+                || difference <= minRatio * median) {
+            return null;
+        }
+        return new RegressionReport.Regression(taskName,
+                metric == 0 ? RegressionReport.METRIC_RUN : RegressionReport.METRIC_QUEUE, value, median, mad);
+    }
+
+    /**
+     * @param values sorted in place
+     */
+    private static long median(long[] values) {
+        Arrays.sort(values);
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+
+    /**
+     * Load the baseline file unless {@link #load()} already ran.
+     */
+    synchronized void ensureLoaded() throws IOException {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    /**
+     * Merge the baseline file into the samples added so far, the file ones count as older. The file
+     * is read once, a later call changes nothing.
+     */
+    public synchronized void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (file == null || !file.exists()) {
+            return;
+        }
+        Map<String, List<long[]>> fileSamples = new LinkedHashMap<>();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String taskName = in.readUTF();
+                int size = in.readInt();
+                List<long[]> samples = new ArrayList<>(size);
+                for (int j = 0; j < size; j++) {
+                    samples.add(new long[]{in.readLong(), in.readLong()});
+                }
+                fileSamples.put(taskName, samples);
+            }
+        } finally {
+            in.close();
+        }
+
+        Map<String, List<long[]>> addedSamples = getSamples();
+        baselines.clear();
+        sampleCounts.clear();
+        addBaselines(fileSamples);
+        addBaselines(addedSamples);
+    }
+
+    /**
+     * @return baseline of every task, oldest launch first
+     */
+    private Map<String, List<long[]>> getSamples() {
+        Map<String, List<long[]>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, long[][]> entry : baselines.entrySet()) {
+            String taskName = entry.getKey();
+            long[][] samples = entry.getValue();
+            int count = sampleCounts.get(taskName);
+            int size = getSampleCount(taskName);
+            List<long[]> taskSamples = new ArrayList<>(size);
+            for (int i = count - size; i < count; i++) {
+                taskSamples.add(new long[]{samples[0][i % samples[0].length], samples[1][i % samples[1].length]});
+            }
+            result.put(taskName, taskSamples);
+        }
+        return result;
+    }
+
+    private void addBaselines(Map<String, List<long[]>> samples) {
+        for (Map.Entry<String, List<long[]>> entry : samples.entrySet()) {
+            for (long[] sample : entry.getValue()) {
+                addBaseline(entry.getKey(), sample[0], sample[1]);
+            }
+        }
+    }
+
+    /**
+     * Write to a temp file first and rename, so a killed process never leaves a broken baseline.
+     */
+    public synchronized void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(baselines.size());
+            for (Map.Entry<String, long[][]> entry : baselines.entrySet()) {
+                String taskName = entry.getKey();
+                long[][] samples = entry.getValue();
+                int count = sampleCounts.get(taskName);
+                int size = getSampleCount(taskName);
+                out.writeUTF(taskName);
+                out.writeInt(size);
+                // oldest first, load() refills the ring in the same order
+                for (int i = count - size; i < count; i++) {
+                    out.writeLong(samples[0][i % samples[0].length]);
+                    out.writeLong(samples[1][i % samples[1].length]);
+                }
+            }
+        } finally {
+            out.close();
+        }
+        if (!tempFile.renameTo(file)) {
+            file.delete();
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("rename " + tempFile + " to " + file + " fail");
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.caij.app.startup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Outcome of {@link RegressionChecker#check(StartupMetrics)}, {@link #toJson()} is meant for CI.
+ */
+public final class RegressionReport {
+
+    public static final String METRIC_RUN = "run";
+    public static final String METRIC_QUEUE = "queue";
+
+    private final int checkedCount;
+    private final List<Regression> regressions;
+
+    RegressionReport(int checkedCount, List<Regression> regressions) {
+        this.checkedCount = checkedCount;
+        this.regressions = Collections.unmodifiableList(regressions);
+    }
+
+    public boolean hasRegression() {
+        return !regressions.isEmpty();
+    }
+
+    /**
+     * @return tasks with enough baseline launches to be checked
+     */
+    public int getCheckedCount() {
+        return checkedCount;
+    }
+
+    public List<Regression> getRegressions() {
+        return regressions;
+    }
+
+    public String toJson() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\"regressed\":").append(hasRegression())
+                .append(",\"checked\":").append(checkedCount)
+                .append(",\"regressions\":[");
+        for (int i = 0; i < regressions.size(); i++) {
+            Regression regression = regressions.get(i);
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"task\":").append(Utils.quote(regression.taskName))
+                    .append(",\"metric\":").append(Utils.quote(regression.metric))
+                    .append(",\"valueNanos\":").append(regression.valueNanos)
+                    .append(",\"medianNanos\":").append(regression.medianNanos)
+                    .append(",\"madNanos\":").append(regression.madNanos)
+                    .append(",\"ratio\":").append(regression.medianNanos == 0
+                            ? "null" : String.format(Locale.US, "%.3f", regression.getRatio()))
+                    .append('}');
+        }
+        return builder.append("]}").toString();
+    }
+
+    public void writeJson(File file) throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(toJson());
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RegressionReport{checked=" + checkedCount + ", regressions=" + regressions + '}';
+    }
+
+    public static final class Regression {
+
+        private final String taskName;
+        private final String metric;
+        private final long valueNanos;
+        private final long medianNanos;
+        private final long madNanos;
+
+        Regression(String taskName, String metric, long valueNanos, long medianNanos, long madNanos) {
+            this.taskName = taskName;
+            this.metric = metric;
+            this.valueNanos = valueNanos;
+            this.medianNanos = medianNanos;
+            this.madNanos = madNanos;
+        }
+
+        public String getTaskName() {
+            return taskName;
+        }
+
+        /**
+         * @return {@link #METRIC_RUN} or {@link #METRIC_QUEUE}
+         */
+        public String getMetric() {
+            return metric;
+        }
+
+        public long getValueNanos() {
+            return valueNanos;
+        }
+
+        public long getMedianNanos() {
+            return medianNanos;
+        }
+
+        /**
+         * @return median absolute deviation of the baseline
+         */
+        public long getMadNanos() {
+            return madNanos;
+        }
+
+        /**
+         * @return value divided by the baseline median
+         */
+        public double getRatio() {
+            return medianNanos == 0 ? Double.POSITIVE_INFINITY : (double) valueNanos / medianNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s %s %.3fms, median %.3fms", taskName, metric,
+                    valueNanos / 1e6, medianNanos / 1e6);
+        }
+    }
+}
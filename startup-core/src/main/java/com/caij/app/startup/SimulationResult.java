@@ -0,0 +1,121 @@
+package com.caij.app.startup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Predicted timeline of one simulated launch, times are virtual and counted from start(). They are
+ * kept in microseconds, the millisecond getters round.
+ */
+public class SimulationResult {
+
+    /**
+     * key of the stage made of {@link Task#isInStage()} tasks
+     */
+    public static final String DEFAULT_STAGE = "default";
+
+    private final long makespanMicros;
+    private final long startReturnMicros;
+    private final Map<String, Long> stageReleaseMicros;
+    private final Map<String, long[]> taskMicros;
+    private final long[] laneBusyMicros;
+
+    SimulationResult(long makespanMicros, long startReturnMicros, Map<String, Long> stageReleaseMicros,
+                     Map<String, long[]> taskMicros, long[] laneBusyMicros) {
+        this.makespanMicros = makespanMicros;
+        this.startReturnMicros = startReturnMicros;
+        this.stageReleaseMicros = stageReleaseMicros;
+        this.taskMicros = taskMicros;
+        this.laneBusyMicros = laneBusyMicros;
+    }
+
+    private static long toMillis(long micros) {
+        return micros < 0 ? micros : (micros + 500) / 1000;
+    }
+
+    /**
+     * @return time the last task finished
+     */
+    public long getMakespan() {
+        return toMillis(makespanMicros);
+    }
+
+    public long getMakespanMicros() {
+        return makespanMicros;
+    }
+
+    /**
+     * @return time start() would return, every main thread and wait task done
+     */
+    public long getStartReturnTime() {
+        return toMillis(startReturnMicros);
+    }
+
+    public long getStartReturnMicros() {
+        return startReturnMicros;
+    }
+
+    /**
+     * @return stage name to the time its last task finished, in release order
+     */
+    public Map<String, Long> getStageReleaseTimes() {
+        Map<String, Long> times = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : stageReleaseMicros.entrySet()) {
+            times.put(entry.getKey(), toMillis(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(times);
+    }
+
+    /**
+     * @return start time of the task, -1 if it never ran, e.g. a lazy task
+     */
+    public long getTaskStartTime(String taskName) {
+        return toMillis(getTaskStartMicros(taskName));
+    }
+
+    public long getTaskStartMicros(String taskName) {
+        long[] times = taskMicros.get(taskName);
+        return times == null ? -1 : times[0];
+    }
+
+    /**
+     * @return finish time of the task, -1 if it never ran
+     */
+    public long getTaskFinishTime(String taskName) {
+        return toMillis(getTaskFinishMicros(taskName));
+    }
+
+    public long getTaskFinishMicros(String taskName) {
+        long[] times = taskMicros.get(taskName);
+        return times == null ? -1 : times[1];
+    }
+
+    /**
+     * @return number of lanes, lane 0 is the main thread, the others are workers
+     */
+    public int getLaneCount() {
+        return laneBusyMicros.length;
+    }
+
+    public long getLaneBusyTime(int lane) {
+        return toMillis(laneBusyMicros[lane]);
+    }
+
+    /**
+     * @return busy share of the lane until the makespan, 0 until 1
+     */
+    public float getLaneUtilization(int lane) {
+        return makespanMicros == 0 ? 0 : (float) laneBusyMicros[lane] / makespanMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationResult{makespanMicros=" + makespanMicros
+                + ", startReturnMicros=" + startReturnMicros
+                + ", stageMicros=" + stageReleaseMicros
+                + ", laneBusyMicros=" + Arrays.toString(laneBusyMicros)
+                + '}';
+    }
+}
@@ -0,0 +1,80 @@
+package com.caij.app.startup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Milestone finished once every task naming it in {@link Task#stages()} finished, failed or was
+ * skipped, independent of the rest of the graph.
+ */
+public class Stage {
+
+    private final String name;
+    private final AtomicInteger remainingTaskCount = new AtomicInteger();
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private final List<OnStageListener> listeners = new ArrayList<>();
+
+    Stage(String name) {
+        this.name = name;
+    }
+
+    void addTask() {
+        remainingTaskCount.incrementAndGet();
+    }
+
+    void onTaskDone() {
+        if (remainingTaskCount.decrementAndGet() != 0) {
+            return;
+        }
+        OnStageListener[] finishedListeners;
+        synchronized (this) {
+            latch.countDown();
+            finishedListeners = listeners.toArray(new OnStageListener[0]);
+            listeners.clear();
+        }
+        for (OnStageListener listener : finishedListeners) {
+            listener.onStageFinish(name);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isFinished() {
+        return latch.getCount() == 0;
+    }
+
+    /**
+     * Do not block the main thread on a stage holding main thread tasks after start() returned,
+     * they run on the main looper.
+     */
+    public void await() throws InterruptedException {
+        latch.await();
+    }
+
+    /**
+     * @return stage finished before the timeout passed
+     */
+    public boolean await(long timeoutMillis) throws InterruptedException {
+        return latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void addListener(OnStageListener listener) {
+        synchronized (this) {
+            if (!isFinished()) {
+                listeners.add(listener);
+                return;
+            }
+        }
+        listener.onStageFinish(name);
+    }
+
+    @Override
+    public String toString() {
+        return "Stage{name=" + name + ", remaining=" + remainingTaskCount.get() + '}';
+    }
+}
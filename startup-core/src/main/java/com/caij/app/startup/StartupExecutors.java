@@ -0,0 +1,62 @@
+package com.caij.app.startup;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pools for {@link DGAppStartup.Builder#setExecutor(String, java.util.concurrent.Executor)},
+ * sized by core count and how long their tasks block.
+ */
+public final class StartupExecutors {
+
+    /**
+     * share of run time an io task spends blocked, 0.75 gives four threads per core
+     */
+    public static final float IO_BLOCKING_COEFFICIENT = 0.75f;
+
+    private static final long KEEP_ALIVE_SECONDS = 10;
+
+    private StartupExecutors() {
+    }
+
+    /**
+     * cores / (1 - blocking coefficient), a compute bound pool gets one thread per core.
+     * @param blockingCoefficient share of run time tasks spend blocked, 0 until 0.95
+     */
+    public static int getPoolSize(float blockingCoefficient) {
+        float coefficient = Math.max(0f, Math.min(0.95f, blockingCoefficient));
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, (int) (cores / (1 - coefficient)));
+    }
+
+    public static ThreadPoolExecutor newCpuExecutor() {
+        return newExecutor(Task.EXECUTION_CPU, getPoolSize(0));
+    }
+
+    public static ThreadPoolExecutor newIoExecutor() {
+        return newExecutor(Task.EXECUTION_IO, getPoolSize(IO_BLOCKING_COEFFICIENT));
+    }
+
+    /**
+     * Fixed size pool whose threads die after being idle, nothing stays around after startup.
+     */
+    public static ThreadPoolExecutor newExecutor(final String name, int poolSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+
+                    private final AtomicInteger threadId = new AtomicInteger(0);
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r, DGAppStartup.TAG + "-" + name + "-" + threadId.getAndIncrement());
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,103 @@
+package com.caij.app.startup;
+
+import java.util.Arrays;
+
+/**
+ * Nanosecond timeline of one launch, taken when the project finished, see
+ * {@link DGAppStartup#getMetrics()}. Tasks are indexed by id, the topological order of
+ * {@link TaskGraph#getTaskNames()}. Times are {@link System#nanoTime()} values, a task not run
+ * before the project finished, like a skipped or lazy one, has all of them 0.
+ */
+public final class StartupMetrics {
+
+    private final long projectStartNanos;
+    private final long projectFinishNanos;
+    private final String[] taskNames;
+    private final long[] readyNanos;
+    private final long[] startNanos;
+    private final long[] finishNanos;
+    private final long[] threadIds;
+    private final String[] threadNames;
+
+    StartupMetrics(long projectStartNanos, long projectFinishNanos, String[] taskNames, long[] readyNanos,
+                   long[] startNanos, long[] finishNanos, long[] threadIds, String[] threadNames) {
+        this.projectStartNanos = projectStartNanos;
+        this.projectFinishNanos = projectFinishNanos;
+        this.taskNames = taskNames;
+        this.readyNanos = readyNanos;
+        this.startNanos = startNanos;
+        this.finishNanos = finishNanos;
+        this.threadIds = threadIds;
+        this.threadNames = threadNames;
+    }
+
+    public long getProjectStartNanos() {
+        return projectStartNanos;
+    }
+
+    public long getProjectFinishNanos() {
+        return projectFinishNanos;
+    }
+
+    public int getTaskCount() {
+        return taskNames.length;
+    }
+
+    public String getTaskName(int id) {
+        return taskNames[id];
+    }
+
+    /**
+     * @return id of the task, -1 if there is none with that name
+     */
+    public int indexOf(String taskName) {
+        return Arrays.asList(taskNames).indexOf(taskName);
+    }
+
+    /**
+     * @return the task ran before the project finished
+     */
+    public boolean isRun(int id) {
+        return threadNames[id] != null;
+    }
+
+    /**
+     * @return when the last dependency finished and the task was handed to its executor
+     */
+    public long getReadyNanos(int id) {
+        return readyNanos[id];
+    }
+
+    public long getStartNanos(int id) {
+        return startNanos[id];
+    }
+
+    public long getFinishNanos(int id) {
+        return finishNanos[id];
+    }
+
+    /**
+     * @return time between ready and start, spent in the executor queue
+     */
+    public long getQueueNanos(int id) {
+        return startNanos[id] - readyNanos[id];
+    }
+
+    public long getRunNanos(int id) {
+        return finishNanos[id] - startNanos[id];
+    }
+
+    /**
+     * @return {@link Thread#getId()} of the thread the task ran on
+     */
+    public long getThreadId(int id) {
+        return threadIds[id];
+    }
+
+    /**
+     * @return name of the thread the task ran on, null if it did not run
+     */
+    public String getThreadName(int id) {
+        return threadNames[id];
+    }
+}
@@ -0,0 +1,191 @@
+package com.caij.app.startup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * What actually limited one launch, computed from {@link StartupMetrics} and the dependency graph,
+ * see {@link DGAppStartup#getReport()}. Only tasks run before the project finished are counted.
+ */
+public final class StartupReport {
+
+    private final StartupMetrics metrics;
+    private final int widestLevel;
+    private final long makespanNanos;
+    private final long busyNanos;
+    private final List<String> criticalPath;
+    private final long criticalPathRunNanos;
+    private final long[] slackNanos;
+
+    private StartupReport(StartupMetrics metrics, int widestLevel, long makespanNanos, long busyNanos,
+                          List<String> criticalPath, long criticalPathRunNanos, long[] slackNanos) {
+        this.metrics = metrics;
+        this.widestLevel = widestLevel;
+        this.makespanNanos = makespanNanos;
+        this.busyNanos = busyNanos;
+        this.criticalPath = criticalPath;
+        this.criticalPathRunNanos = criticalPathRunNanos;
+        this.slackNanos = slackNanos;
+    }
+
+    static StartupReport create(StartupMetrics metrics, TaskGraph graph) {
+        int count = metrics.getTaskCount();
+        long origin = metrics.getProjectStartNanos();
+        int[] parentOffsets = graph.getParentOffsets();
+        int[] parentIds = graph.getParentIds();
+        int[] childOffsets = graph.getChildOffsets();
+        int[] childIds = graph.getChildIds();
+
+        int lastId = -1;
+        long busyNanos = 0;
+        for (int id = 0; id < count; id++) {
+            if (!metrics.isRun(id)) {
+                continue;
+            }
+            busyNanos += metrics.getRunNanos(id);
+            if (lastId == -1 || metrics.getFinishNanos(id) - metrics.getFinishNanos(lastId) > 0) {
+                lastId = id;
+            }
+        }
+        long makespanNanos = lastId == -1 ? 0 : metrics.getFinishNanos(lastId) - origin;
+
+        // walk back from the last finishing task, each step to the dependency that released it last
+        List<String> criticalPath = new ArrayList<>();
+        long criticalPathRunNanos = 0;
+        int id = lastId;
+        while (id != -1) {
+            criticalPath.add(metrics.getTaskName(id));
+            criticalPathRunNanos += metrics.getRunNanos(id);
+            int releasedBy = -1;
+            for (int i = parentOffsets[id]; i < parentOffsets[id + 1]; i++) {
+                int parentId = parentIds[i];
+                if (metrics.isRun(parentId) && (releasedBy == -1
+                        || metrics.getFinishNanos(parentId) - metrics.getFinishNanos(releasedBy) > 0)) {
+                    releasedBy = parentId;
+                }
+            }
+            id = releasedBy;
+        }
+        Collections.reverse(criticalPath);
+
+        // latest finish keeping the makespan with measured run times, ids are in topological order
+        long[] latestFinish = new long[count];
+        long[] slackNanos = new long[count];
+        long end = origin + makespanNanos;
+        for (id = count - 1; id >= 0; id--) {
+            if (!metrics.isRun(id)) {
+                slackNanos[id] = -1;
+                continue;
+            }
+            long latest = end;
+            for (int i = childOffsets[id]; i < childOffsets[id + 1]; i++) {
+                int childId = childIds[i];
+                if (metrics.isRun(childId)) {
+                    latest = Math.min(latest, latestFinish[childId] - metrics.getRunNanos(childId));
+                }
+            }
+            latestFinish[id] = latest;
+            slackNanos[id] = Math.max(0, latest - metrics.getFinishNanos(id));
+        }
+        return new StartupReport(metrics, graph.getMaxWidth(), makespanNanos, busyNanos,
+                Collections.unmodifiableList(criticalPath), criticalPathRunNanos, slackNanos);
+    }
+
+    public StartupMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return from start() to the finish of the last task
+     */
+    public long getMakespanNanos() {
+        return makespanNanos;
+    }
+
+    /**
+     * @return measured chain of tasks that set the makespan, each released by the one before it
+     */
+    public List<String> getCriticalPath() {
+        return criticalPath;
+    }
+
+    /**
+     * @return run time summed along {@link #getCriticalPath()}, the rest of the makespan is waiting
+     */
+    public long getCriticalPathRunNanos() {
+        return criticalPathRunNanos;
+    }
+
+    /**
+     * @return how much later the task could have finished without a later makespan, -1 if it did
+     * not run. On the critical path only the queue gaps after it are left
+     */
+    public long getSlackNanos(String taskName) {
+        return slackNanos[indexOf(taskName)];
+    }
+
+    /**
+     * @return from start() until the last dependency finished
+     */
+    public long getDependencyWaitNanos(String taskName) {
+        int id = indexOf(taskName);
+        return metrics.isRun(id) ? metrics.getReadyNanos(id) - metrics.getProjectStartNanos() : 0;
+    }
+
+    /**
+     * @return from ready until a thread picked the task up
+     */
+    public long getQueueWaitNanos(String taskName) {
+        int id = indexOf(taskName);
+        return metrics.isRun(id) ? metrics.getQueueNanos(id) : 0;
+    }
+
+    /**
+     * @return average number of tasks running at once over the makespan
+     */
+    public double getAchievedParallelism() {
+        return makespanNanos == 0 ? 0 : (double) busyNanos / makespanNanos;
+    }
+
+    /**
+     * Tasks of one level never depend on each other, but tasks of different levels may run
+     * together too, so more threads than this can still be busy.
+     * @return most tasks sharing one level of the graph, see {@link TaskGraph#getMaxWidth()}
+     */
+    public int getWidestLevel() {
+        return widestLevel;
+    }
+
+    private int indexOf(String taskName) {
+        int id = metrics.indexOf(taskName);
+        if (id == -1) {
+            throw new IllegalArgumentException("task " + taskName + " not found");
+        }
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.US, "makespan %.3fms, parallelism %.2f, widest level %d%n",
+                makespanNanos / 1e6, getAchievedParallelism(), widestLevel));
+        builder.append(String.format(Locale.US, "critical path %s, run %.3fms%n",
+                criticalPath, criticalPathRunNanos / 1e6));
+        builder.append(String.format(Locale.US, "%-32s %10s %10s %10s %10s%n",
+                "task", "run", "dependency", "queue", "slack"));
+        for (int id = 0; id < metrics.getTaskCount(); id++) {
+            if (!metrics.isRun(id)) {
+                continue;
+            }
+            builder.append(String.format(Locale.US, "%-32s %10.3f %10.3f %10.3f %10.3f%n",
+                    metrics.getTaskName(id),
+                    metrics.getRunNanos(id) / 1e6,
+                    (metrics.getReadyNanos(id) - metrics.getProjectStartNanos()) / 1e6,
+                    metrics.getQueueNanos(id) / 1e6,
+                    slackNanos[id] / 1e6));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package com.caij.app.startup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Aggregated outcome of one launch, returned by {@link DGAppStartup#start()}. Tasks still running
+ * after start() returned keep adding to it until the project finished.
+ */
+public class StartupResult {
+
+    private final Map<String, Throwable> failures = new LinkedHashMap<>();
+    private final List<String> skippedTasks = new ArrayList<>();
+    private final List<String> overrunTasks = new ArrayList<>();
+    private volatile boolean deadlineHit;
+
+    synchronized void addFailure(Task task, Throwable throwable) {
+        failures.put(task.getTaskName(), throwable);
+    }
+
+    synchronized void addSkipped(Task task) {
+        skippedTasks.add(task.getTaskName());
+    }
+
+    synchronized void addOverrun(Task task) {
+        overrunTasks.add(task.getTaskName());
+    }
+
+    void setDeadlineHit() {
+        deadlineHit = true;
+    }
+
+    /**
+     * @return no task failed or was skipped so far
+     */
+    public synchronized boolean isSuccess() {
+        return failures.isEmpty() && skippedTasks.isEmpty();
+    }
+
+    /**
+     * @return task name to the throwable it failed with, dependents failed by
+     * {@link Config#FAILURE_POLICY_FAIL_DEPENDENTS} carry the cause of the task they depend on
+     */
+    public synchronized Map<String, Throwable> getFailures() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+    }
+
+    /**
+     * @return dependents not run because of {@link Config#FAILURE_POLICY_SKIP_DEPENDENTS}
+     */
+    public synchronized List<String> getSkippedTasks() {
+        return Collections.unmodifiableList(new ArrayList<>(skippedTasks));
+    }
+
+    /**
+     * @return tasks that missed a deadline
+     */
+    public synchronized List<String> getOverrunTasks() {
+        return Collections.unmodifiableList(new ArrayList<>(overrunTasks));
+    }
+
+    /**
+     * @return start() returned because of {@link Config#startDeadlineMillis}
+     */
+    public boolean isDeadlineHit() {
+        return deadlineHit;
+    }
+
+    RuntimeException toException() {
+        Throwable cause = null;
+        synchronized (this) {
+            if (!failures.isEmpty()) {
+                cause = failures.values().iterator().next();
+            }
+        }
+        RuntimeException exception = new RuntimeException("startup fail " + this, cause);
+        Set<Throwable> suppressed = Collections.newSetFromMap(new IdentityHashMap<Throwable, Boolean>());
+        suppressed.add(cause);
+        for (Throwable throwable : getFailures().values()) {
+            // failed dependents share the throwable of the task they depend on
+            if (suppressed.add(throwable)) {
+                exception.addSuppressed(throwable);
+            }
+        }
+        return exception;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "StartupResult{failures=" + failures.keySet()
+                + ", skipped=" + skippedTasks
+                + ", overrun=" + overrunTasks
+                + ", deadlineHit=" + deadlineHit
+                + '}';
+    }
+}
@@ -0,0 +1,242 @@
+package com.caij.app.startup;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Replays a created but not started {@link DGAppStartup} on a virtual clock to predict what a
+ * changed dependency, priority or pool size does without a device. Ready tasks are ordered like
+ * {@link ReadyQueue}, through the same {@link TaskQueue} with the comparator, critical path and
+ * wait path the startup computed, so only time is simulated. The clock counts microseconds like
+ * {@link TaskProfileStore}, sub millisecond tasks add up instead of rounding away. The tasks are
+ * never touched and equal inputs always give equal results.
+ *
+ * Lane 0 is the main thread, it runs main thread tasks and, with {@link Config#isMainThreadHelp},
+ * background tasks until start() would return. All background tasks share the worker lanes
+ * whatever their execution class. Lazy tasks never run, deferred tasks are released once start()
+ * would return.
+ */
+public class StartupSimulator {
+
+    private static final int MAIN_LANE = 0;
+
+    private final DGAppStartup startup;
+    private final int workerCount;
+    private final Map<String, Long> durationMicros = new HashMap<>();
+
+    /**
+     * @param workerCount background threads, fixed for the whole launch
+     */
+    public StartupSimulator(DGAppStartup startup, int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("workerCount " + workerCount);
+        }
+        this.startup = startup;
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Tasks without a duration take their profiled run time, else {@link Task#getEstimatedDuration()}.
+     * Only the simulated run time changes, the order still follows the critical path the startup
+     * computed in create(), as it would on a device.
+     */
+    public StartupSimulator setDuration(String taskName, long millis) {
+        return setDurationMicros(taskName, millis * 1000);
+    }
+
+    public StartupSimulator setDurationMicros(String taskName, long micros) {
+        durationMicros.put(taskName, micros);
+        return this;
+    }
+
+    public SimulationResult run() {
+        TaskGraph graph = startup.getGraph();
+        Task[] tasks = graph.getTasks();
+        int[] childOffsets = graph.getChildOffsets();
+        int[] childIds = graph.getChildIds();
+        Config config = startup.config;
+
+        int[] pending = graph.getDependencyCounts().clone();
+        long[] duration = new long[tasks.length];
+        int mainRemaining = 0;
+        int waitRemaining = 0;
+        int remaining = 0;
+        Map<String, int[]> stageRemaining = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            Long micros = durationMicros.get(task.getTaskName());
+            duration[task.getId()] = Math.max(0, micros != null ? micros : startup.estimateMicros(task));
+            if (task.isLazy() || task.isDeferred()) {
+                // lazy tasks are never requested, deferred ones wait for start() to return
+                pending[task.getId()]++;
+            }
+            if (task.isLazy()) {
+                continue;
+            }
+            remaining++;
+            if (!task.isDeferred()) {
+                if (task.isMustRunMainThread()) {
+                    mainRemaining++;
+                }
+                if (task.isWaitOnMainThread()) {
+                    waitRemaining++;
+                }
+                if (task.isInStage()) {
+                    addStageTask(stageRemaining, SimulationResult.DEFAULT_STAGE);
+                }
+            }
+            List<String> stageNames = task.stages();
+            if (stageNames != null) {
+                for (String stageName : stageNames) {
+                    addStageTask(stageRemaining, stageName);
+                }
+            }
+        }
+
+        TaskQueue readyQueue = new TaskQueue(startup.taskComparator, tasks.length);
+        ArrayDeque<Task> mainQueue = new ArrayDeque<>();
+        Task[] running = new Task[workerCount + 1];
+        long[] laneBusy = new long[workerCount + 1];
+        // time, sequence, lane
+        PriorityQueue<long[]> events = new PriorityQueue<>(workerCount + 1, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] lhs, long[] rhs) {
+                if (lhs[0] != rhs[0]) {
+                    return lhs[0] < rhs[0] ? -1 : 1;
+                }
+                return lhs[1] < rhs[1] ? -1 : (lhs[1] == rhs[1] ? 0 : 1);
+            }
+        });
+        Map<String, long[]> taskTimes = new HashMap<>();
+        Map<String, Long> stageReleaseTimes = new LinkedHashMap<>();
+        long sequence = 0;
+        long now = 0;
+        long startReturnTime = -1;
+        long makespan = 0;
+
+        Task[] startTasks = graph.getStartTasks().clone();
+        Arrays.sort(startTasks, startup.taskComparator);
+        for (Task task : startTasks) {
+            if (pending[task.getId()] == 0) {
+                makeReady(task, readyQueue, mainQueue);
+            }
+        }
+        if (mainRemaining == 0 && waitRemaining == 0) {
+            startReturnTime = 0;
+            releaseDeferred(tasks, pending, readyQueue, mainQueue);
+        }
+
+        while (true) {
+            // hand out work to every free lane, main thread first like the real start loop
+            for (int lane = 0; lane <= workerCount; lane++) {
+                if (running[lane] != null) {
+                    continue;
+                }
+                Task task;
+                if (lane == MAIN_LANE) {
+                    task = mainQueue.poll();
+                    if (task == null && config.isMainThreadHelp && startReturnTime < 0) {
+                        task = readyQueue.pollWaitPath();
+                    }
+                } else {
+                    task = readyQueue.poll();
+                }
+                if (task == null) {
+                    continue;
+                }
+                running[lane] = task;
+                laneBusy[lane] += duration[task.getId()];
+                taskTimes.put(task.getTaskName(), new long[]{now, now + duration[task.getId()]});
+                events.offer(new long[]{now + duration[task.getId()], sequence++, lane});
+            }
+
+            long[] event = events.poll();
+            if (event == null) {
+                break;
+            }
+            now = event[0];
+            int lane = (int) event[2];
+            Task task = running[lane];
+            running[lane] = null;
+            makespan = now;
+            remaining--;
+
+            for (int i = childOffsets[task.getId()]; i < childOffsets[task.getId() + 1]; i++) {
+                Task child = tasks[childIds[i]];
+                if (--pending[child.getId()] == 0) {
+                    makeReady(child, readyQueue, mainQueue);
+                }
+            }
+            if (!task.isDeferred()) {
+                if (task.isMustRunMainThread()) {
+                    mainRemaining--;
+                }
+                if (task.isWaitOnMainThread()) {
+                    waitRemaining--;
+                }
+                if (task.isInStage()) {
+                    finishStageTask(stageRemaining, stageReleaseTimes, SimulationResult.DEFAULT_STAGE, now);
+                }
+            }
+            List<String> stageNames = task.stages();
+            if (stageNames != null) {
+                for (String stageName : stageNames) {
+                    finishStageTask(stageRemaining, stageReleaseTimes, stageName, now);
+                }
+            }
+            if (startReturnTime < 0 && mainRemaining == 0 && waitRemaining == 0) {
+                startReturnTime = now;
+                releaseDeferred(tasks, pending, readyQueue, mainQueue);
+            }
+        }
+        if (remaining != 0) {
+            throw new IllegalStateException(remaining + " tasks never became ready");
+        }
+        return new SimulationResult(makespan, startReturnTime, stageReleaseTimes, taskTimes, laneBusy);
+    }
+
+    private static void makeReady(Task task, TaskQueue readyQueue, ArrayDeque<Task> mainQueue) {
+        if (task.isMustRunMainThread()) {
+            mainQueue.offer(task);
+        } else {
+            readyQueue.offer(task);
+        }
+    }
+
+    private void releaseDeferred(Task[] tasks, int[] pending, TaskQueue readyQueue, ArrayDeque<Task> mainQueue) {
+        Task[] deferred = new Task[tasks.length];
+        int count = 0;
+        for (Task task : tasks) {
+            if (task.isDeferred()) {
+                deferred[count++] = task;
+            }
+        }
+        Arrays.sort(deferred, 0, count, startup.taskComparator);
+        for (int i = 0; i < count; i++) {
+            if (--pending[deferred[i].getId()] == 0) {
+                makeReady(deferred[i], readyQueue, mainQueue);
+            }
+        }
+    }
+
+    private static void addStageTask(Map<String, int[]> stageRemaining, String stageName) {
+        int[] count = stageRemaining.get(stageName);
+        if (count == null) {
+            count = new int[1];
+            stageRemaining.put(stageName, count);
+        }
+        count[0]++;
+    }
+
+    private static void finishStageTask(Map<String, int[]> stageRemaining, Map<String, Long> stageReleaseTimes,
+                                        String stageName, long now) {
+        if (--stageRemaining.get(stageName)[0] == 0) {
+            stageReleaseTimes.put(stageName, now);
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.caij.app.startup;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+public abstract class Task {
+
+    public static final int STATE_IDLE = 0;
+    public static final int STATE_RUNNING = 1;
+    public static final int STATE_FINISHED = 2;
+    public static final int STATE_WAIT = 3;
+    public static final int STATE_FAILED = 4;
+    public static final int STATE_SKIPPED = 5;
+
+    /**
+     * compute bound task, default execution class
+     */
+    public static final String EXECUTION_CPU = "cpu";
+    /**
+     * task blocking on disk or network
+     */
+    public static final String EXECUTION_IO = "io";
+
+    private static final AtomicIntegerFieldUpdater<Task> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(Task.class, "currentState");
+    private static final AtomicIntegerFieldUpdater<Task> WAIT_RELEASED_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(Task.class, "waitReleased");
+    private static final AtomicIntegerFieldUpdater<Task> OVERRUN_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(Task.class, "overrun");
+    private static final AtomicIntegerFieldUpdater<Task> REQUESTED_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(Task.class, "requested");
+
+    private Executor executorService;
+    private volatile int currentState = STATE_IDLE;
+    private volatile int waitReleased;
+    private volatile int overrun;
+    private volatile int requested;
+    private int id = -1;
+    private TaskListener taskListener;
+    private DGAppStartup startup;
+    private long criticalPathLength;
+    private ReadyQueue readyQueue;
+    private boolean onWaitPath;
+    private boolean blocking;
+    private long startTime;
+    private long waitTime;
+    private TaskFuture<Object> future;
+    private Object result;
+
+    private final Runnable internalRunnable = new Runnable() {
+        @Override
+        public void run() {
+            runInternal();
+        }
+    };
+
+
+    void start() {
+        // only the thread winning the cas starts the task
+        if (!STATE_UPDATER.compareAndSet(this, STATE_IDLE, STATE_WAIT)) {
+            if (currentState == STATE_SKIPPED) {
+                // a dependency failed before the last one finished
+                return;
+            }
+            throw new RuntimeException("You try to run task " + getTaskName() + " twice, is there a circular dependency?");
+        }
+        startTime = startup.clock.uptimeMillis();
+        if (taskListener != null) {
+            taskListener.onWaitRunning(Task.this);
+        }
+        if (readyQueue != null) {
+            readyQueue.offer(this);
+        } else {
+            executorService.execute(internalRunnable);
+        }
+    }
+
+    void runInternal() {
+        // a lazy main thread task may be posted to the looper and run inline by await()
+        if (!STATE_UPDATER.compareAndSet(this, STATE_WAIT, STATE_RUNNING)) {
+            return;
+        }
+        waitTime = startup.clock.uptimeMillis() - startTime;
+        if (taskListener != null) { taskListener.onStart(Task.this); }
+        boolean finished;
+        try {
+            finished = runTask();
+        } catch (Throwable e) {
+            // never rethrow, dependents and waiting threads must still be released
+            finish(null, e);
+            return;
+        }
+        if (finished) {
+            finish(result, null);
+        }
+    }
+
+    /**
+     * @return finished, false if {@link CallbackTask} completes later
+     */
+    boolean runTask() {
+        run();
+        return true;
+    }
+
+    /**
+     * @return false if the task was finished before
+     */
+    boolean finish(Object result, Throwable failure) {
+        if (!STATE_UPDATER.compareAndSet(this, STATE_RUNNING, failure == null ? STATE_FINISHED : STATE_FAILED)) {
+            return false;
+        }
+        if (failure != null) {
+            startup.logger.e(DGAppStartup.TAG, "task Throwable " + failure.getMessage(), failure);
+        }
+        // dependents only start after the future completed, they read the result through it
+        future.complete(failure == null ? result : null, failure);
+        long df = startup.clock.uptimeMillis() - startTime;
+        if (taskListener != null) { taskListener.onFinish(Task.this, waitTime, df); }
+        startup.onTaskFinished(this, failure);
+        return true;
+    }
+
+    /**
+     * @return started and not picked up by any thread yet
+     */
+    boolean isWaiting() {
+        return currentState == STATE_WAIT;
+    }
+
+    boolean isFinished() {
+        return currentState == STATE_FINISHED;
+    }
+
+    /**
+     * @return finished, failed or skipped
+     */
+    boolean isDone() {
+        int state = currentState;
+        return state == STATE_FINISHED || state == STATE_FAILED || state == STATE_SKIPPED;
+    }
+
+    /**
+     * Dependents of a failed task are skipped before they ever start.
+     */
+    boolean skip() {
+        return STATE_UPDATER.compareAndSet(this, STATE_IDLE, STATE_SKIPPED);
+    }
+
+    void setId(int id) {
+        if (this.id >= 0) {
+            throw new RuntimeException("task " + getTaskName() + " already added to a startup");
+        }
+        this.id = id;
+    }
+
+    /**
+     * @return index in the compiled graph
+     */
+    int getId() {
+        return id;
+    }
+
+    void setExecutorService(Executor executor) {
+        this.executorService = executor;
+    }
+
+    void setReadyQueue(ReadyQueue readyQueue) {
+        this.readyQueue = readyQueue;
+    }
+
+    /**
+     * The main thread stops waiting for this task either when it finished or when its deadline
+     * passed, only the first of both counts down.
+     */
+    boolean releaseWait() {
+        return WAIT_RELEASED_UPDATER.compareAndSet(this, 0, 1);
+    }
+
+    boolean isWaitReleased() {
+        return waitReleased != 0;
+    }
+
+    /**
+     * A lazy task is requested once, later callers only wait for it.
+     */
+    boolean markRequested() {
+        return REQUESTED_UPDATER.compareAndSet(this, 0, 1);
+    }
+
+    boolean markOverrun() {
+        return OVERRUN_UPDATER.compareAndSet(this, 0, 1);
+    }
+
+    /**
+     * @return task missed {@link #getDeadlineMillis()} or the start deadline
+     */
+    public boolean isOverrun() {
+        return overrun != 0;
+    }
+
+    void setOnWaitPath(boolean onWaitPath) {
+        this.onWaitPath = onWaitPath;
+    }
+
+    /**
+     * @return some {@link #isWaitOnMainThread()} task depends on this task, or it is one itself
+     */
+    boolean isOnWaitPath() {
+        return onWaitPath;
+    }
+
+    void setBlocking(boolean blocking) {
+        this.blocking = blocking;
+    }
+
+    /**
+     * @return {@link #EXECUTION_IO} task on a pool the startup manages itself
+     */
+    boolean isBlocking() {
+        return blocking;
+    }
+
+    void setTaskListener(TaskListener taskListener) {
+        this.taskListener = taskListener;
+    }
+
+    void setStartup(DGAppStartup startup) {
+        this.startup = startup;
+    }
+
+    void setFuture(TaskFuture<Object> future) {
+        this.future = future;
+    }
+
+    TaskFuture<Object> getFuture() {
+        return future;
+    }
+
+    /**
+     * Call it from {@link #run()}, a {@link CallbackTask} passes it to
+     * {@link TaskCompletion#success(Object)} instead. Dependents read the value with
+     * {@link #getDependencyResult(String)} and other code with {@link DGAppStartup#getFuture(String)}.
+     */
+    protected void setResult(Object result) {
+        this.result = result;
+    }
+
+    /**
+     * @return value the dependency passed to {@link #setResult(Object)}, null if it failed or was
+     * pruned
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> T getDependencyResult(String taskName) {
+        // the compiled graph also knows dependencies declared by a registry or after pruning
+        TaskGraph graph = startup.getGraph();
+        int[] parentOffsets = graph.getParentOffsets();
+        int[] parentIds = graph.getParentIds();
+        Task[] tasks = graph.getTasks();
+        for (int i = parentOffsets[id]; i < parentOffsets[id + 1]; i++) {
+            Task parent = tasks[parentIds[i]];
+            if (parent.getTaskName().equals(taskName)) {
+                return (T) parent.future.getResult();
+            }
+        }
+        if (graph.isPruned(taskName)) {
+            return null;
+        }
+        throw new IllegalStateException("task " + getTaskName() + " does not depend on " + taskName);
+    }
+
+    void setCriticalPathLength(long criticalPathLength) {
+        this.criticalPathLength = criticalPathLength;
+    }
+
+    /**
+     * @return own estimated duration plus the longest chain of dependents in microseconds, only
+     * computed when {@link Config#isCriticalPathFirst} is enabled
+     */
+    long getCriticalPathLength() {
+        return criticalPathLength;
+    }
+
+    //----------------------------------
+
+    /**
+     * task run
+     */
+    public abstract void run();
+
+    /**
+     * @return names of the tasks this one depends on, null for none. Never called for tasks of a
+     * {@link TaskRegistry}, the compiled {@code @StartupTask(dependsOn)} is the only source there
+     */
+    protected List<String> dependencies() {
+        return null;
+    }
+
+    /**
+     * @return dga start await task finish.
+     */
+    public boolean isWaitOnMainThread() {
+        return false;
+    }
+
+    /**
+     * @return task run on main thread
+     */
+    public boolean isMustRunMainThread() {
+        return false;
+    }
+
+    /**
+     * Background tasks are routed to the executor set for their class with
+     * {@link DGAppStartup.Builder#setExecutor(String, Executor)}, any other name is a custom pool.
+     * @return {@link #EXECUTION_CPU}, {@link #EXECUTION_IO} or a custom name
+     */
+    public String getExecutionClass() {
+        return EXECUTION_CPU;
+    }
+
+    /**
+     * Evaluated once in {@link DGAppStartup.Builder#create()}, a disabled task is removed from the
+     * graph before anything runs and its dependents wait for its dependencies instead. Use it for
+     * secondary processes or feature flags rather than returning early from {@link #run()}.
+     * @return run in this launch
+     */
+    public boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * A task only preparing its dependents is removed as well once every task depending on it was
+     * removed, see {@link #isEnabled()}.
+     * @return not needed without dependents
+     */
+    public boolean runOnlyForDependents() {
+        return false;
+    }
+
+    /**
+     * A lazy task is left out of start(), it runs with its lazy dependencies the first time
+     * {@link DGAppStartup#await(String)} or {@link DGAppStartup#request(String)} asks for it.
+     * Only lazy tasks may depend on it and it can not {@link #isWaitOnMainThread()}.
+     * @return run on first use
+     */
+    public boolean isLazy() {
+        return false;
+    }
+
+    /**
+     * A deferred task is held back until the first frame was drawn and the main thread is idle,
+     * see {@link IdleScheduler}. Main thread deferred tasks run in idle slices bounded by
+     * {@link Config#idleSliceMillis}. Only deferred or lazy tasks may depend on it.
+     * @return run after first frame
+     */
+    public boolean isDeferred() {
+        return false;
+    }
+
+    /**
+     * The smaller the value, the higher the priority
+     * @return task execute priority
+     */
+    public int getPriority() {
+        return 0;
+    }
+
+    /**
+     * Used by critical path scheduling when {@link TaskProfileStore} has no history of this task,
+     * the default 1 makes the longest chain of tasks critical.
+     * @return estimated run time in milliseconds
+     */
+    public long getEstimatedDuration() {
+        return 1;
+    }
+
+    /**
+     * A {@link #isWaitOnMainThread()} task past its deadline no longer blocks start(), see
+     * {@link Config#overrunPolicy}.
+     * @return budget in milliseconds after start() was called, 0 means no deadline
+     */
+    public long getDeadlineMillis() {
+        return 0;
+    }
+
+    /**
+     * @return names of the {@link Stage}s this task belongs to, each stage finishes as soon as its
+     * own tasks are done. A lazy task can not be part of a stage
+     */
+    protected List<String> stages() {
+        return null;
+    }
+
+    /**
+     * @return
+     */
+    public boolean isInStage() {
+        return true;
+    }
+
+    /**
+     * @return task name
+     */
+    public abstract String getTaskName();
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj != null && this.getClass() == obj.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
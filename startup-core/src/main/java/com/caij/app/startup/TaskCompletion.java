@@ -0,0 +1,35 @@
+package com.caij.app.startup;
+
+/**
+ * Completes a {@link CallbackTask}, only the first call counts.
+ */
+public final class TaskCompletion {
+
+    private final Task task;
+
+    TaskCompletion(Task task) {
+        this.task = task;
+    }
+
+    public boolean success() {
+        return success(null);
+    }
+
+    /**
+     * @param result passed to dependents, see {@link Task#getDependencyResult(String)}
+     * @return false if the task was completed before
+     */
+    public boolean success(Object result) {
+        return task.finish(result, null);
+    }
+
+    /**
+     * @return false if the task was completed before
+     */
+    public boolean fail(Throwable throwable) {
+        if (throwable == null) {
+            throw new NullPointerException("throwable");
+        }
+        return task.finish(null, throwable);
+    }
+}
@@ -0,0 +1,199 @@
+package com.caij.app.startup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Result handle of one task, see {@link DGAppStartup#getFuture(String)}. It completes before any
+ * dependent of the task is started, with the value passed to {@link Task#setResult(Object)} or with
+ * the throwable the task or the dependency it was skipped for failed with. It can not be cancelled.
+ */
+public final class TaskFuture<T> implements Future<T> {
+
+    private final String taskName;
+    private boolean done;
+    private T result;
+    private Throwable failure;
+    private List<Callback<T>> callbacks;
+
+    TaskFuture(String taskName) {
+        this.taskName = taskName;
+    }
+
+    static <T> TaskFuture<T> completed(String taskName, T result) {
+        TaskFuture<T> future = new TaskFuture<>(taskName);
+        future.complete(result, null);
+        return future;
+    }
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    void complete(T result, Throwable failure) {
+        List<Callback<T>> completedCallbacks;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            this.result = result;
+            this.failure = failure;
+            done = true;
+            notifyAll();
+            completedCallbacks = callbacks;
+            callbacks = null;
+        }
+        if (completedCallbacks != null) {
+            for (Callback<T> callback : completedCallbacks) {
+                callback.dispatch(this);
+            }
+        }
+    }
+
+    /**
+     * Called on the thread completing the task, right away if it is done already. Keep it short,
+     * dependents start after it returned.
+     */
+    public void addListener(OnTaskCompleteListener<T> listener) {
+        addListener(listener, null);
+    }
+
+    /**
+     * @param executor runs the listener, null runs it like {@link #addListener(OnTaskCompleteListener)}
+     */
+    public void addListener(OnTaskCompleteListener<T> listener, Executor executor) {
+        Callback<T> callback = new Callback<>(listener, executor);
+        synchronized (this) {
+            if (!done) {
+                if (callbacks == null) {
+                    callbacks = new ArrayList<>(2);
+                }
+                callbacks.add(callback);
+                return;
+            }
+        }
+        callback.dispatch(this);
+    }
+
+    /**
+     * Compose on the task without blocking a thread. On Android it needs API 24 or core library
+     * desugaring.
+     */
+    public CompletableFuture<T> toCompletableFuture() {
+        final CompletableFuture<T> completableFuture = new CompletableFuture<>();
+        addListener(new OnTaskCompleteListener<T>() {
+            @Override
+            public void onComplete(TaskFuture<T> future) {
+                if (future.isSuccess()) {
+                    completableFuture.complete(future.getResult());
+                } else {
+                    completableFuture.completeExceptionally(future.getFailure());
+                }
+            }
+        });
+        return completableFuture;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return done;
+    }
+
+    /**
+     * @return done without a failure
+     */
+    public synchronized boolean isSuccess() {
+        return done && failure == null;
+    }
+
+    /**
+     * @return result of the task, null until it finished successfully
+     */
+    public synchronized T getResult() {
+        return failure == null ? result : null;
+    }
+
+    /**
+     * @return throwable the task failed with, or the failure it was skipped for
+     */
+    public synchronized Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * Never call it on the main thread while start() may still need it to run main thread tasks.
+     */
+    @Override
+    public synchronized T get() throws InterruptedException, ExecutionException {
+        while (!done) {
+            wait();
+        }
+        return report();
+    }
+
+    @Override
+    public synchronized T get(long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!done) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new TimeoutException("task " + taskName + " not done");
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return report();
+    }
+
+    private T report() throws ExecutionException {
+        if (failure != null) {
+            throw new ExecutionException("task " + taskName + " fail", failure);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TaskFuture{task=" + taskName + ", done=" + done + ", failure=" + failure + '}';
+    }
+
+    private static final class Callback<T> {
+
+        private final OnTaskCompleteListener<T> listener;
+        private final Executor executor;
+
+        Callback(OnTaskCompleteListener<T> listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        void dispatch(final TaskFuture<T> future) {
+            if (executor == null) {
+                listener.onComplete(future);
+                return;
+            }
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onComplete(future);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,586 @@
+package com.caij.app.startup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable startup plan compiled once in {@link DGAppStartup.Builder#create()}. Compiling resolves
+ * dependency names, sorts the tasks topologically, reports any cycle with its full path and stores
+ * the edges in int arrays indexed by task id, so {@link DGAppStartup#start()} can run the plan
+ * without checking it again.
+ */
+public final class TaskGraph {
+
+    private final Task[] tasks;
+    private final Task[] startTasks;
+    private final int[] dependencyCounts;
+    private final int[] childOffsets;
+    private final int[] childIds;
+    private final int[] parentOffsets;
+    private final int[] parentIds;
+    private Map<String, Task> taskMap;
+    private final int depth;
+    private final int maxWidth;
+    private final int[] inDegreeHistogram;
+    private final Task[] prunedTasks;
+    private final Set<String> prunedTaskNames;
+
+    private TaskGraph(Task[] tasks, Task[] startTasks, int[] dependencyCounts, int[] childOffsets,
+                      int[] childIds, int[] parentOffsets, int[] parentIds,
+                      int depth, int maxWidth, int[] inDegreeHistogram, Task[] prunedTasks) {
+        this.tasks = tasks;
+        this.startTasks = startTasks;
+        this.dependencyCounts = dependencyCounts;
+        this.childOffsets = childOffsets;
+        this.childIds = childIds;
+        this.parentOffsets = parentOffsets;
+        this.parentIds = parentIds;
+        this.depth = depth;
+        this.maxWidth = maxWidth;
+        this.inDegreeHistogram = inDegreeHistogram;
+        this.prunedTasks = prunedTasks;
+        Set<String> prunedTaskNames = new LinkedHashSet<>();
+        for (Task task : prunedTasks) {
+            prunedTaskNames.add(task.getTaskName());
+        }
+        this.prunedTaskNames = Collections.unmodifiableSet(prunedTaskNames);
+    }
+
+    static TaskGraph compile(List<Task> taskList, Map<String, Task> taskMap) {
+        if (taskList == null || taskList.isEmpty()) {
+            throw new RuntimeException("not have start task, please check task dependencies");
+        }
+
+        int size = taskList.size();
+        Map<Task, Integer> indexMap = new IdentityHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            indexMap.put(taskList.get(i), i);
+        }
+
+        int[][] parents = new int[size][];
+        for (int i = 0; i < size; i++) {
+            Task task = taskList.get(i);
+            List<String> dependencies = task.dependencies();
+            if (dependencies == null || dependencies.isEmpty()) {
+                parents[i] = new int[0];
+                continue;
+            }
+            Set<Integer> depIndexes = new LinkedHashSet<>();
+            for (String depTaskName : dependencies) {
+                Task depTask = taskMap.get(depTaskName);
+                if (depTask == null) {
+                    throw new RuntimeException(depTaskName + " not added");
+                }
+                depIndexes.add(indexMap.get(depTask));
+            }
+            parents[i] = new int[depIndexes.size()];
+            int j = 0;
+            for (int depIndex : depIndexes) {
+                parents[i][j++] = depIndex;
+            }
+        }
+        return compile(taskList.toArray(new Task[0]), parents, null);
+    }
+
+    /**
+     * The startup compiler already sorted the registry and checked it for cycles, its arrays are
+     * linked as they are. Disabled tasks are only known now, they still go through pruning.
+     */
+    static TaskGraph link(TaskRegistry registry) {
+        Task[] tasks = registry.createTasks();
+        if (tasks == null || tasks.length == 0) {
+            throw new RuntimeException("not have start task, please check task dependencies");
+        }
+        int size = tasks.length;
+        int[] parentOffsets = registry.getDependencyOffsets();
+        int[] parentIds = registry.getDependencies();
+        int[] childOffsets = registry.getChildOffsets();
+        int[] levels = registry.getLevels();
+        if (parentOffsets.length != size + 1 || childOffsets.length != size + 1 || levels.length != size
+                || parentIds.length != parentOffsets[size] || registry.getChildren().length != childOffsets[size]) {
+            throw new IllegalStateException(registry.getClass().getName() + " does not match its tasks");
+        }
+
+        Map<String, Task> taskMap = new HashMap<>(size * 2);
+        boolean hasDisabled = false;
+        for (Task task : tasks) {
+            Task addedTask = taskMap.put(task.getTaskName(), task);
+            if (addedTask != null) {
+                throw new IllegalStateException("task name " + task.getTaskName() + " used by both "
+                        + addedTask.getClass().getName() + " and " + task.getClass().getName());
+            }
+            hasDisabled |= !task.isEnabled();
+        }
+        if (hasDisabled) {
+            int[][] parents = new int[size][];
+            for (int i = 0; i < size; i++) {
+                parents[i] = Arrays.copyOfRange(parentIds, parentOffsets[i], parentOffsets[i + 1]);
+            }
+            return compile(tasks, parents, null);
+        }
+
+        int[] dependencyCounts = new int[size];
+        int maxInDegree = 0;
+        int startSize = 0;
+        int depth = 0;
+        for (int i = 0; i < size; i++) {
+            tasks[i].setId(i);
+            dependencyCounts[i] = parentOffsets[i + 1] - parentOffsets[i];
+            maxInDegree = Math.max(maxInDegree, dependencyCounts[i]);
+            if (dependencyCounts[i] == 0) {
+                startSize++;
+            }
+            depth = Math.max(depth, levels[i] + 1);
+        }
+        int[] inDegreeHistogram = new int[maxInDegree + 1];
+        int[] width = new int[depth];
+        int maxWidth = 0;
+        Task[] startTasks = new Task[startSize];
+        startSize = 0;
+        for (int i = 0; i < size; i++) {
+            inDegreeHistogram[dependencyCounts[i]]++;
+            maxWidth = Math.max(maxWidth, ++width[levels[i]]);
+            if (dependencyCounts[i] == 0) {
+                startTasks[startSize++] = tasks[i];
+            }
+        }
+
+        checkLazy(tasks, parentOffsets, parentIds);
+
+        // sortChildren() reorders child ranges in place, the registry's array stays untouched
+        TaskGraph graph = new TaskGraph(tasks, startTasks, dependencyCounts, childOffsets,
+                registry.getChildren().clone(), parentOffsets, parentIds, depth, maxWidth,
+                inDegreeHistogram, new Task[0]);
+        graph.taskMap = taskMap;
+        return graph;
+    }
+
+    /**
+     * @param prunedTasks null on the first pass, which evaluates {@link Task#isEnabled()}
+     */
+    private static TaskGraph compile(Task[] taskList, int[][] parents, Task[] prunedTasks) {
+        int size = taskList.length;
+        int[] childCount = new int[size];
+        for (int i = 0; i < size; i++) {
+            for (int parent : parents[i]) {
+                childCount[parent]++;
+            }
+        }
+
+        int[][] children = new int[size][];
+        for (int i = 0; i < size; i++) {
+            children[i] = new int[childCount[i]];
+            childCount[i] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            for (int parent : parents[i]) {
+                children[parent][childCount[parent]++] = i;
+            }
+        }
+
+        // Kahn, level of a task is the longest distance from a start task
+        int[] inDegree = new int[size];
+        int maxInDegree = 0;
+        for (int i = 0; i < size; i++) {
+            inDegree[i] = parents[i].length;
+            maxInDegree = Math.max(maxInDegree, inDegree[i]);
+        }
+        int[] inDegreeHistogram = new int[maxInDegree + 1];
+        for (int i = 0; i < size; i++) {
+            inDegreeHistogram[inDegree[i]]++;
+        }
+
+        int[] order = new int[size];
+        int[] level = new int[size];
+        int orderSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (inDegree[i] == 0) {
+                order[orderSize++] = i;
+            }
+        }
+        int startSize = orderSize;
+        for (int i = 0; i < orderSize; i++) {
+            int current = order[i];
+            for (int child : children[current]) {
+                level[child] = Math.max(level[child], level[current] + 1);
+                if (--inDegree[child] == 0) {
+                    order[orderSize++] = child;
+                }
+            }
+        }
+
+        if (orderSize != size) {
+            throw new IllegalStateException("circular dependency: " + findCycle(taskList, children, inDegree));
+        }
+
+        if (prunedTasks == null) {
+            boolean[] removed = prune(taskList, parents, children, order);
+            if (removed != null) {
+                return compileRemaining(taskList, parents, order, removed);
+            }
+            prunedTasks = new Task[0];
+        }
+
+        int depth = 0;
+        for (int i = 0; i < size; i++) {
+            depth = Math.max(depth, level[i] + 1);
+        }
+        int[] width = new int[depth];
+        int maxWidth = 0;
+        for (int i = 0; i < size; i++) {
+            maxWidth = Math.max(maxWidth, ++width[level[i]]);
+        }
+
+        // task id is the topological index, children are stored CSR style
+        int[] ids = new int[size];
+        Task[] tasks = new Task[size];
+        for (int i = 0; i < size; i++) {
+            ids[order[i]] = i;
+            tasks[i] = taskList[order[i]];
+            tasks[i].setId(i);
+        }
+        int edgeCount = childCount(children);
+        int[] dependencyCounts = new int[size];
+        int[] childOffsets = new int[size + 1];
+        int[] childIds = new int[edgeCount];
+        int[] parentOffsets = new int[size + 1];
+        int[] parentIds = new int[edgeCount];
+        for (int i = 0; i < size; i++) {
+            int index = order[i];
+            dependencyCounts[i] = parents[index].length;
+            childOffsets[i + 1] = childOffsets[i] + children[index].length;
+            for (int j = 0; j < children[index].length; j++) {
+                childIds[childOffsets[i] + j] = ids[children[index][j]];
+            }
+            parentOffsets[i + 1] = parentOffsets[i] + parents[index].length;
+            for (int j = 0; j < parents[index].length; j++) {
+                parentIds[parentOffsets[i] + j] = ids[parents[index][j]];
+            }
+        }
+
+        checkLazy(tasks, parentOffsets, parentIds);
+
+        Task[] startTasks = Arrays.copyOf(tasks, startSize);
+        return new TaskGraph(tasks, startTasks, dependencyCounts, childOffsets, childIds,
+                parentOffsets, parentIds, depth, maxWidth, inDegreeHistogram, prunedTasks);
+    }
+
+    /**
+     * Remove disabled tasks and, walking up from them, {@link Task#runOnlyForDependents()} tasks
+     * left without any dependent.
+     * @return removed by index, null if every task stays
+     */
+    private static boolean[] prune(Task[] taskList, int[][] parents, int[][] children, int[] order) {
+        int size = taskList.length;
+        boolean[] removed = null;
+        for (int i = 0; i < size; i++) {
+            if (!taskList[i].isEnabled()) {
+                if (removed == null) {
+                    removed = new boolean[size];
+                }
+                removed[i] = true;
+            }
+        }
+        if (removed == null) {
+            return null;
+        }
+        // children come later in topological order, walking it backwards sees them all first
+        for (int i = size - 1; i >= 0; i--) {
+            int index = order[i];
+            if (removed[index] || children[index].length == 0 || !taskList[index].runOnlyForDependents()) {
+                continue;
+            }
+            boolean needed = false;
+            for (int child : children[index]) {
+                if (!removed[child]) {
+                    needed = true;
+                    break;
+                }
+            }
+            removed[index] = !needed;
+        }
+        return removed;
+    }
+
+    /**
+     * A dependency on a removed task becomes a dependency on the nearest remaining tasks it
+     * depended on, so the remaining ones keep their order.
+     */
+    private static TaskGraph compileRemaining(Task[] taskList, int[][] parents, int[] order, boolean[] removed) {
+        int size = taskList.length;
+        int[] newIndexes = new int[size];
+        int remainingSize = 0;
+        List<Task> prunedTasks = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (removed[i]) {
+                newIndexes[i] = -1;
+                prunedTasks.add(taskList[i]);
+            } else {
+                newIndexes[i] = remainingSize++;
+            }
+        }
+
+        Task[] remaining = new Task[remainingSize];
+        int[][] remainingParents = new int[remainingSize][];
+        // remaining tasks a removed task stands for, filled in topological order
+        int[][] replacements = new int[size][];
+        for (int i = 0; i < size; i++) {
+            int index = order[i];
+            Set<Integer> resolved = new LinkedHashSet<>();
+            for (int parent : parents[index]) {
+                if (removed[parent]) {
+                    for (int replacement : replacements[parent]) {
+                        resolved.add(replacement);
+                    }
+                } else {
+                    resolved.add(newIndexes[parent]);
+                }
+            }
+            int[] resolvedParents = new int[resolved.size()];
+            int j = 0;
+            for (int parent : resolved) {
+                resolvedParents[j++] = parent;
+            }
+            if (removed[index]) {
+                replacements[index] = resolvedParents;
+            } else {
+                remaining[newIndexes[index]] = taskList[index];
+                remainingParents[newIndexes[index]] = resolvedParents;
+            }
+        }
+        return compile(remaining, remainingParents, prunedTasks.toArray(new Task[0]));
+    }
+
+    /**
+     * A lazy task only runs on request and a deferred task only after the first frame, nothing
+     * start() waits for may depend on them.
+     */
+    private static void checkLazy(Task[] tasks, int[] parentOffsets, int[] parentIds) {
+        for (int id = 0; id < tasks.length; id++) {
+            Task task = tasks[id];
+            if (task.isLazy() && task.isDeferred()) {
+                throw new IllegalStateException("task " + task.getTaskName() + " can not be lazy and deferred");
+            }
+            if ((task.isLazy() || task.isDeferred()) && task.isWaitOnMainThread()) {
+                throw new IllegalStateException((task.isLazy() ? "lazy" : "deferred") + " task "
+                        + task.getTaskName() + " can not wait on main thread");
+            }
+            if (task.isLazy()) {
+                continue;
+            }
+            for (int i = parentOffsets[id]; i < parentOffsets[id + 1]; i++) {
+                Task parent = tasks[parentIds[i]];
+                if (parent.isLazy()) {
+                    throw new IllegalStateException("task " + task.getTaskName()
+                            + " depends on lazy task " + parent.getTaskName() + ", it must be lazy too");
+                }
+                if (parent.isDeferred() && !task.isDeferred()) {
+                    throw new IllegalStateException("task " + task.getTaskName()
+                            + " depends on deferred task " + parent.getTaskName() + ", it must be deferred too");
+                }
+            }
+        }
+    }
+
+    private static int childCount(int[][] children) {
+        int count = 0;
+        for (int[] child : children) {
+            count += child.length;
+        }
+        return count;
+    }
+
+    /**
+     * Depth first search over the tasks left by Kahn, they all sit on or behind a cycle.
+     */
+    private static String findCycle(Task[] taskList, int[][] children, int[] inDegree) {
+        int size = taskList.length;
+        // 0 unvisited, 1 on stack, 2 done
+        int[] color = new int[size];
+        int[] stack = new int[size];
+        int[] childIndex = new int[size];
+        for (int root = 0; root < size; root++) {
+            if (inDegree[root] == 0 || color[root] != 0) {
+                continue;
+            }
+            int top = 0;
+            stack[0] = root;
+            childIndex[root] = 0;
+            color[root] = 1;
+            while (top >= 0) {
+                int current = stack[top];
+                if (childIndex[current] < children[current].length) {
+                    int child = children[current][childIndex[current]++];
+                    if (color[child] == 1) {
+                        StringBuilder path = new StringBuilder();
+                        int from = top;
+                        while (stack[from] != child) {
+                            from--;
+                        }
+                        for (int i = from; i <= top; i++) {
+                            path.append(taskList[stack[i]].getTaskName()).append(" -> ");
+                        }
+                        return path.append(taskList[child].getTaskName()).toString();
+                    } else if (color[child] == 0) {
+                        color[child] = 1;
+                        childIndex[child] = 0;
+                        stack[++top] = child;
+                    }
+                } else {
+                    color[current] = 2;
+                    top--;
+                }
+            }
+        }
+        return "unknown";
+    }
+
+    /**
+     * @return tasks in topological order
+     */
+    Task[] getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @return tasks without dependencies
+     */
+    Task[] getStartTasks() {
+        return startTasks;
+    }
+
+    /**
+     * @return number of dependencies indexed by task id
+     */
+    int[] getDependencyCounts() {
+        return dependencyCounts;
+    }
+
+    /**
+     * Children of task id are {@code getChildIds()[offsets[id]]} until {@code offsets[id + 1]}.
+     */
+    int[] getChildOffsets() {
+        return childOffsets;
+    }
+
+    int[] getChildIds() {
+        return childIds;
+    }
+
+    /**
+     * Dependencies of task id are {@code getParentIds()[offsets[id]]} until {@code offsets[id + 1]}.
+     */
+    int[] getParentOffsets() {
+        return parentOffsets;
+    }
+
+    int[] getParentIds() {
+        return parentIds;
+    }
+
+    /**
+     * Names are only hashed when a task is looked up by name the first time.
+     */
+    synchronized Task findTask(String taskName) {
+        if (taskMap == null) {
+            taskMap = new HashMap<>(tasks.length * 2);
+            for (Task task : tasks) {
+                taskMap.put(task.getTaskName(), task);
+            }
+        }
+        return taskMap.get(taskName);
+    }
+
+    /**
+     * Order every child range once before start, dispatching then never sorts again.
+     */
+    void sortChildren(Comparator<Task> comparator) {
+        Task[] children = new Task[0];
+        for (int id = 0; id < tasks.length; id++) {
+            int from = childOffsets[id];
+            int count = childOffsets[id + 1] - from;
+            if (count <= 1) {
+                continue;
+            }
+            if (children.length < count) {
+                children = new Task[count];
+            }
+            for (int i = 0; i < count; i++) {
+                children[i] = tasks[childIds[from + i]];
+            }
+            Arrays.sort(children, 0, count, comparator);
+            for (int i = 0; i < count; i++) {
+                childIds[from + i] = children[i].getId();
+            }
+        }
+    }
+
+    /**
+     * @return tasks removed in {@link DGAppStartup.Builder#create()}, see {@link Task#isEnabled()}
+     */
+    public Set<String> getPrunedTaskNames() {
+        return prunedTaskNames;
+    }
+
+    Task[] getPrunedTasks() {
+        return prunedTasks;
+    }
+
+    boolean isPruned(String taskName) {
+        return prunedTaskNames.contains(taskName);
+    }
+
+    public int getTaskCount() {
+        return tasks.length;
+    }
+
+    /**
+     * @return task names in topological order
+     */
+    public List<String> getTaskNames() {
+        List<String> names = new ArrayList<>(tasks.length);
+        for (Task task : tasks) {
+            names.add(task.getTaskName());
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * @return number of tasks on the longest dependency chain
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return most tasks sharing one level, a lower bound of how many tasks may run at once
+     */
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    /**
+     * @return index is the number of dependencies, value is the number of tasks
+     */
+    public int[] getInDegreeHistogram() {
+        return inDegreeHistogram.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "TaskGraph{tasks=" + tasks.length
+                + ", depth=" + depth
+                + ", maxWidth=" + maxWidth
+                + ", inDegreeHistogram=" + Arrays.toString(inDegreeHistogram)
+                + ", pruned=" + prunedTaskNames.size()
+                + '}';
+    }
+}
@@ -0,0 +1,116 @@
+package com.caij.app.startup;
+
+import java.util.Arrays;
+
+/**
+ * Run time statistics of one task across launches, see {@link TaskProfileStore}.
+ */
+public class TaskProfile {
+
+    static final int MAX_SAMPLES = 20;
+    static final float EWMA_ALPHA = 0.3f;
+
+    private final String taskName;
+    private int sampleCount;
+    // microseconds, whole milliseconds turned every short task into 0
+    private float ewma;
+    private final int[] samples;
+    private int sampleSize;
+    private int sampleIndex;
+    private int overrunCount;
+
+    TaskProfile(String taskName) {
+        this.taskName = taskName;
+        this.samples = new int[MAX_SAMPLES];
+    }
+
+    void add(long runNanos) {
+        int value = (int) Math.min(Integer.MAX_VALUE, Math.max(0, runNanos / 1000));
+        ewma = sampleCount == 0 ? value : ewma + EWMA_ALPHA * (value - ewma);
+        sampleCount++;
+        samples[sampleIndex] = value;
+        sampleIndex = (sampleIndex + 1) % MAX_SAMPLES;
+        if (sampleSize < MAX_SAMPLES) {
+            sampleSize++;
+        }
+    }
+
+    void addOverrun() {
+        overrunCount++;
+    }
+
+    void restore(int sampleCount, float ewma, int overrunCount, int[] recentSamples) {
+        this.sampleCount = sampleCount;
+        this.overrunCount = overrunCount;
+        this.ewma = ewma;
+        int size = Math.min(recentSamples.length, MAX_SAMPLES);
+        System.arraycopy(recentSamples, recentSamples.length - size, samples, 0, size);
+        this.sampleSize = size;
+        this.sampleIndex = size % MAX_SAMPLES;
+    }
+
+    /**
+     * @return recent samples in microseconds, oldest first
+     */
+    int[] getRecentSamples() {
+        int[] recent = new int[sampleSize];
+        int start = sampleSize < MAX_SAMPLES ? 0 : sampleIndex;
+        for (int i = 0; i < sampleSize; i++) {
+            recent[i] = samples[(start + i) % MAX_SAMPLES];
+        }
+        return recent;
+    }
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    /**
+     * @return total samples recorded, not limited to the recent window
+     */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @return launches in which the task missed its deadline
+     */
+    public int getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * @return exponentially weighted moving average of run time in milliseconds
+     */
+    public float getEwma() {
+        return ewma / 1000f;
+    }
+
+    float getEwmaMicros() {
+        return ewma;
+    }
+
+    /**
+     * @return median run time of the recent window in milliseconds
+     */
+    public float getP50() {
+        return percentile(50) / 1000f;
+    }
+
+    /**
+     * @return 95th percentile run time of the recent window in milliseconds
+     */
+    public float getP95() {
+        return percentile(95) / 1000f;
+    }
+
+    private int percentile(int percent) {
+        if (sampleSize == 0) {
+            return 0;
+        }
+        int[] sorted = Arrays.copyOf(samples, sampleSize);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percent / 100f * sampleSize) - 1;
+        return sorted[Math.max(0, Math.min(sampleSize - 1, index))];
+    }
+}
@@ -0,0 +1,191 @@
+package com.caij.app.startup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps per task run time statistics in a small binary file. It is loaded in
+ * {@link DGAppStartup.Builder#create()}, fed by every finished task and written back
+ * on a background thread after the project finished.
+ */
+public class TaskProfileStore {
+
+    private static final int MAGIC = 0x44474150;
+    // 3: run times in microseconds instead of milliseconds
+    private static final int VERSION = 3;
+
+    private final File file;
+    private final Map<String, TaskProfile> profiles = new HashMap<>();
+    /**
+     * Only one save writes the temp file at a time, tasks keep recording meanwhile.
+     */
+    private final Object saveLock = new Object();
+    private int launchCount;
+    private int deadlineHitCount;
+
+    public TaskProfileStore(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return profile of the task, null if it never ran before
+     */
+    public synchronized TaskProfile getProfile(String taskName) {
+        return profiles.get(taskName);
+    }
+
+    /**
+     * @return historical run time in microseconds, -1 if unknown
+     */
+    public synchronized long getEstimatedMicros(String taskName) {
+        TaskProfile profile = profiles.get(taskName);
+        if (profile == null || profile.getSampleCount() == 0) {
+            return -1;
+        }
+        return Math.round(profile.getEwmaMicros());
+    }
+
+    /**
+     * @param runNanos measured by {@link MetricsRecorder}, sub millisecond tasks keep their weight
+     */
+    public synchronized void record(String taskName, long runNanos) {
+        getOrCreate(taskName).add(runNanos);
+    }
+
+    public synchronized void recordOverrun(String taskName) {
+        getOrCreate(taskName).addOverrun();
+    }
+
+    /**
+     * @param deadlineHit start() returned because of {@link Config#startDeadlineMillis}
+     */
+    public synchronized void recordLaunch(boolean deadlineHit) {
+        launchCount++;
+        if (deadlineHit) {
+            deadlineHitCount++;
+        }
+    }
+
+    public synchronized int getLaunchCount() {
+        return launchCount;
+    }
+
+    /**
+     * @return launches in which start() returned because of {@link Config#startDeadlineMillis}
+     */
+    public synchronized int getDeadlineHitCount() {
+        return deadlineHitCount;
+    }
+
+    private TaskProfile getOrCreate(String taskName) {
+        TaskProfile profile = profiles.get(taskName);
+        if (profile == null) {
+            profile = new TaskProfile(taskName);
+            profiles.put(taskName, profile);
+        }
+        return profile;
+    }
+
+    public synchronized void load() throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return;
+            }
+            launchCount = in.readInt();
+            deadlineHitCount = in.readInt();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String taskName = in.readUTF();
+                int sampleCount = in.readInt();
+                float ewma = in.readFloat();
+                int overrunCount = in.readInt();
+                int[] samples = new int[in.readUnsignedByte()];
+                for (int j = 0; j < samples.length; j++) {
+                    samples[j] = in.readInt();
+                }
+                TaskProfile profile = new TaskProfile(taskName);
+                profile.restore(sampleCount, ewma, overrunCount, samples);
+                profiles.put(taskName, profile);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Write to a temp file first and rename, so a killed process never leaves a broken profile.
+     * The profiles are copied under the lock and written outside it, record() never waits on io.
+     */
+    public void save() throws IOException {
+        synchronized (saveLock) {
+            int launchCount;
+            int deadlineHitCount;
+            List<TaskProfile> snapshot;
+            synchronized (this) {
+                launchCount = this.launchCount;
+                deadlineHitCount = this.deadlineHitCount;
+                snapshot = new ArrayList<>(profiles.size());
+                for (TaskProfile profile : profiles.values()) {
+                    TaskProfile copy = new TaskProfile(profile.getTaskName());
+                    copy.restore(profile.getSampleCount(), profile.getEwmaMicros(), profile.getOverrunCount(),
+                            profile.getRecentSamples());
+                    snapshot.add(copy);
+                }
+            }
+            write(launchCount, deadlineHitCount, snapshot);
+        }
+    }
+
+    private void write(int launchCount, int deadlineHitCount, List<TaskProfile> snapshot) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(launchCount);
+            out.writeInt(deadlineHitCount);
+            out.writeInt(snapshot.size());
+            for (TaskProfile profile : snapshot) {
+                out.writeUTF(profile.getTaskName());
+                out.writeInt(profile.getSampleCount());
+                out.writeFloat(profile.getEwmaMicros());
+                out.writeInt(profile.getOverrunCount());
+                int[] samples = profile.getRecentSamples();
+                out.writeByte(samples.length);
+                for (int sample : samples) {
+                    out.writeInt(sample);
+                }
+            }
+        } finally {
+            out.close();
+        }
+        if (!tempFile.renameTo(file)) {
+            file.delete();
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("rename " + tempFile + " to " + file + " fail");
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.caij.app.startup;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Ready tasks in dispatch order, not thread safe. {@link ReadyQueue} guards it with its monitor,
+ * {@link StartupSimulator} drives it from a virtual clock, so both pick tasks the same way.
+ *
+ * Tasks on the path to a {@link Task#isWaitOnMainThread()} task are kept apart, a helping main
+ * thread only takes those, so it never blocks start() on unrelated work, while workers still take
+ * the best task of both.
+ */
+class TaskQueue {
+
+    private final int[] readySequence;
+    private final PriorityQueue<Task> waitPathQueue;
+    private final PriorityQueue<Task> otherQueue;
+    private final Comparator<Task> comparator;
+    private int sequence;
+
+    /**
+     * @param taskCount every offered task has an id below it
+     */
+    TaskQueue(final Comparator<Task> comparator, int taskCount) {
+        this.readySequence = new int[taskCount];
+        this.comparator = new Comparator<Task>() {
+            @Override
+            public int compare(Task lhs, Task rhs) {
+                int result = comparator.compare(lhs, rhs);
+                if (result != 0) {
+                    return result;
+                }
+                // keep ready order for tasks of same priority
+                return readySequence[lhs.getId()] - readySequence[rhs.getId()];
+            }
+        };
+        int capacity = Math.max(1, taskCount);
+        this.waitPathQueue = new PriorityQueue<>(capacity, this.comparator);
+        this.otherQueue = new PriorityQueue<>(capacity, this.comparator);
+    }
+
+    void offer(Task task) {
+        readySequence[task.getId()] = sequence++;
+        if (task.isOnWaitPath()) {
+            waitPathQueue.offer(task);
+        } else {
+            otherQueue.offer(task);
+        }
+    }
+
+    Task poll() {
+        Task waitPathTask = waitPathQueue.peek();
+        Task otherTask = otherQueue.peek();
+        if (waitPathTask == null) {
+            return otherQueue.poll();
+        }
+        if (otherTask == null || comparator.compare(waitPathTask, otherTask) < 0) {
+            return waitPathQueue.poll();
+        }
+        return otherQueue.poll();
+    }
+
+    /**
+     * @return best ready task on the path to a main thread wait, null if there is none
+     */
+    Task pollWaitPath() {
+        return waitPathQueue.poll();
+    }
+}
@@ -0,0 +1,41 @@
+package com.caij.app.startup;
+
+/**
+ * Static startup graph generated by the startup compiler from
+ * {@link com.caij.app.startup.annotation.StartupTask}, tasks are already sorted topologically and
+ * validated, so {@link DGAppStartup.Builder#setTaskRegistry(TaskRegistry)} links its arrays
+ * without sorting again.
+ */
+public interface TaskRegistry {
+
+    /**
+     * @return new task instances in topological order, the index is the task id
+     */
+    Task[] createTasks();
+
+    /**
+     * Dependencies of task i are {@code getDependencies()[offsets[i]]} until {@code offsets[i + 1]},
+     * so the array size is task count + 1. Read only.
+     */
+    int[] getDependencyOffsets();
+
+    /**
+     * @return dependency task ids, read only
+     */
+    int[] getDependencies();
+
+    /**
+     * Children of task i are {@code getChildren()[offsets[i]]} until {@code offsets[i + 1]}. Read only.
+     */
+    int[] getChildOffsets();
+
+    /**
+     * @return child task ids, ascending within each task, read only
+     */
+    int[] getChildren();
+
+    /**
+     * @return longest distance of each task from a task without dependencies, read only
+     */
+    int[] getLevels();
+}
@@ -0,0 +1,144 @@
+package com.caij.app.startup;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Streams the {@link StartupMetrics} of a launch as Chrome Trace Event JSON, loadable in Perfetto
+ * or chrome://tracing.
+ */
+class TraceWriter {
+
+    private static final int PID = 1;
+
+    private final File file;
+    private final TaskGraph graph;
+
+    TraceWriter(File file, TaskGraph graph) {
+        this.file = file;
+        this.graph = graph;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Write to a temp file first and rename, a killed process never leaves half a trace.
+     */
+    void write(StartupMetrics metrics) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), "UTF-8"));
+        try {
+            write(writer, metrics);
+        } finally {
+            writer.close();
+        }
+        if (!tempFile.renameTo(file)) {
+            file.delete();
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("rename " + tempFile + " to " + file + " fail");
+            }
+        }
+    }
+
+    void write(Writer writer, StartupMetrics metrics) throws IOException {
+        int count = metrics.getTaskCount();
+        long origin = metrics.getProjectStartNanos();
+        writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+        boolean first = true;
+
+        Set<Long> namedThreads = new HashSet<>();
+        for (int id = 0; id < count; id++) {
+            if (metrics.isRun(id) && namedThreads.add(metrics.getThreadId(id))) {
+                first = separator(writer, first);
+                writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":" + PID + ",\"tid\":" + metrics.getThreadId(id)
+                        + ",\"args\":{\"name\":");
+                writer.write(Utils.quote(metrics.getThreadName(id)));
+                writer.write("}}");
+            }
+        }
+
+        for (int id = 0; id < count; id++) {
+            if (!metrics.isRun(id)) {
+                // skipped, lazy or never finished
+                continue;
+            }
+            long tid = metrics.getThreadId(id);
+            // the wait between ready and start, on the thread that picked the task up
+            first = separator(writer, first);
+            writer.write("{\"name\":");
+            writer.write(Utils.quote(metrics.getTaskName(id)));
+            writer.write(",\"cat\":\"wait\",\"ph\":\"b\",\"id\":" + id + ",\"pid\":" + PID + ",\"tid\":" + tid + ",\"ts\":");
+            micros(writer, metrics.getReadyNanos(id) - origin);
+            writer.write("},\n{\"name\":");
+            writer.write(Utils.quote(metrics.getTaskName(id)));
+            writer.write(",\"cat\":\"wait\",\"ph\":\"e\",\"id\":" + id + ",\"pid\":" + PID + ",\"tid\":" + tid + ",\"ts\":");
+            micros(writer, metrics.getStartNanos(id) - origin);
+            writer.write("},\n{\"name\":");
+            writer.write(Utils.quote(metrics.getTaskName(id)));
+            writer.write(",\"cat\":\"task\",\"ph\":\"X\",\"pid\":" + PID + ",\"tid\":" + tid + ",\"ts\":");
+            micros(writer, metrics.getStartNanos(id) - origin);
+            writer.write(",\"dur\":");
+            micros(writer, metrics.getRunNanos(id));
+            writer.write("}");
+        }
+
+        // one flow arrow per dependency edge, from the end of the parent into the child
+        int[] childOffsets = graph.getChildOffsets();
+        int[] childIds = graph.getChildIds();
+        for (int id = 0; id < count; id++) {
+            if (!metrics.isRun(id)) {
+                continue;
+            }
+            for (int i = childOffsets[id]; i < childOffsets[id + 1]; i++) {
+                int childId = childIds[i];
+                if (!metrics.isRun(childId)) {
+                    continue;
+                }
+                first = separator(writer, first);
+                writer.write("{\"name\":\"dependency\",\"cat\":\"dependency\",\"ph\":\"s\",\"id\":" + i
+                        + ",\"pid\":" + PID + ",\"tid\":" + metrics.getThreadId(id) + ",\"ts\":");
+                micros(writer, metrics.getFinishNanos(id) - origin);
+                writer.write("},\n{\"name\":\"dependency\",\"cat\":\"dependency\",\"ph\":\"f\",\"bp\":\"e\",\"id\":" + i
+                        + ",\"pid\":" + PID + ",\"tid\":" + metrics.getThreadId(childId) + ",\"ts\":");
+                micros(writer, metrics.getStartNanos(childId) - origin);
+                writer.write("}");
+            }
+        }
+        writer.write("\n]}\n");
+    }
+
+    private static boolean separator(Writer writer, boolean first) throws IOException {
+        if (!first) {
+            writer.write(",\n");
+        }
+        return false;
+    }
+
+    /**
+     * Microseconds with nanosecond precision, the unit of the trace format.
+     */
+    private static void micros(Writer writer, long nanos) throws IOException {
+        if (nanos < 0) {
+            writer.write('-');
+            nanos = -nanos;
+        }
+        writer.write(Long.toString(nanos / 1000));
+        long fraction = nanos % 1000;
+        writer.write('.');
+        writer.write((char) ('0' + fraction / 100));
+        writer.write((char) ('0' + fraction / 10 % 10));
+        writer.write((char) ('0' + fraction % 10));
+    }
+}
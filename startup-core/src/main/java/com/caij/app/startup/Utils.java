@@ -0,0 +1,63 @@
+package com.caij.app.startup;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+
+public class Utils {
+
+    private static final Comparator<Task> sTaskComparator = new Comparator<Task>() {
+        @Override
+        public int compare(Task lhs, Task rhs) {
+            return lhs.getPriority() - rhs.getPriority();
+        }
+    };
+
+    private static final Comparator<Task> sCriticalPathComparator = new Comparator<Task>() {
+        @Override
+        public int compare(Task lhs, Task rhs) {
+            long lp = lhs.getCriticalPathLength();
+            long rp = rhs.getCriticalPathLength();
+            if (lp != rp) {
+                return lp > rp ? -1 : 1;
+            }
+            return lhs.getPriority() - rhs.getPriority();
+        }
+    };
+
+    public static Comparator<Task> getComparator(boolean criticalPathFirst) {
+        return criticalPathFirst ? sCriticalPathComparator : sTaskComparator;
+    }
+
+    public static void sort(List<Task> tasks) {
+        sort(tasks, sTaskComparator);
+    }
+
+    public static void sort(List<Task> tasks, Comparator<Task> comparator) {
+        if (tasks.size() <= 1) {
+            return;
+        }
+
+        Collections.sort(tasks, comparator);
+    }
+
+    /**
+     * @return value as a quoted json string
+     */
+    static String quote(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2);
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
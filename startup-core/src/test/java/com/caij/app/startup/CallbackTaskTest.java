@@ -0,0 +1,171 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link CallbackTask} holds no thread until its {@link TaskCompletion} is called.
+ */
+public class CallbackTaskTest {
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+    private final List<Boolean> completions = Collections.synchronizedList(new ArrayList<Boolean>());
+
+    @Test
+    public void success_fromOtherThreadReleasesWorkerAndDependents() throws InterruptedException {
+        final CountDownLatch completed = new CountDownLatch(1);
+        // one worker, the other task can only run if the callback task gave it back
+        ThreadPoolExecutor executor = StartupExecutors.newExecutor("callback-test", 1);
+        try {
+            ResultReader after = new ResultReader("after", "callback");
+            after.dependsOn("callback").waitOnMainThread();
+            DGAppStartup startup = TestStartups.newBuilder(executor)
+                    .add(new NamedCallbackTask("callback") {
+                        @Override
+                        public void run(final TaskCompletion completion) {
+                            new Thread(new Runnable() {
+                                @Override
+                                public void run() {
+                                    waitForLog("other");
+                                    completions.add(completion.success("value"));
+                                    completions.add(completion.success("again"));
+                                    completions.add(completion.fail(new RuntimeException()));
+                                    completed.countDown();
+                                }
+                            }).start();
+                        }
+                    })
+                    .add(new TestTask("other", log))
+                    .add(after)
+                    .create();
+            StartupResult result = startup.start();
+
+            assertTrue(result.isSuccess());
+            assertEquals(Arrays.asList("other", "after"), log);
+            assertEquals("value", after.value);
+            // the first success released start(), the later calls may still be running
+            assertTrue(completed.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(true, false, false), completions);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void fail_countsOnceAndSkipsDependents() {
+        final RuntimeException failure = new RuntimeException("callback failed");
+        Config config = new Config();
+        config.failurePolicy = Config.FAILURE_POLICY_SKIP_DEPENDENTS;
+        DGAppStartup startup = TestStartups.newBuilder(new DirectExecutor(), config)
+                .add(new NamedCallbackTask("callback") {
+                    @Override
+                    public void run(TaskCompletion completion) {
+                        completions.add(completion.fail(failure));
+                        completions.add(completion.fail(new RuntimeException()));
+                        completions.add(completion.success());
+                    }
+                })
+                .add(new TestTask("after", log).dependsOn("callback"))
+                .create();
+        StartupResult result = startup.start();
+
+        assertEquals(Arrays.asList(true, false, false), completions);
+        assertSame(failure, result.getFailures().get("callback"));
+        assertEquals(Collections.singletonList("after"), result.getSkippedTasks());
+        assertTrue(log.isEmpty());
+    }
+
+    @Test
+    public void neverCompleted_onlyTheDeadlineReleasesStart() {
+        ThreadPoolExecutor executor = StartupExecutors.newExecutor("callback-test", 1);
+        try {
+            NamedCallbackTask callback = new NamedCallbackTask("callback") {
+                @Override
+                public void run(TaskCompletion completion) {
+                    // the sdk never calls back
+                }
+
+                @Override
+                public long getDeadlineMillis() {
+                    return 50;
+                }
+            };
+            callback.waitOnMainThread = true;
+            DGAppStartup startup = TestStartups.newBuilder(executor)
+                    .add(callback)
+                    .add(new TestTask("after", log).dependsOn("callback"))
+                    .add(new TestTask("other", log))
+                    .create();
+            StartupResult result = startup.start();
+
+            assertEquals(Collections.singletonList("callback"), result.getOverrunTasks());
+            waitForLog("other");
+            assertFalse(startup.getFuture("callback").isDone());
+            assertFalse(log.contains("after"));
+            // the worker was given back even though the task never finished
+            assertEquals(0, executor.getActiveCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void waitForLog(String name) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!log.contains(name) && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private abstract static class NamedCallbackTask extends CallbackTask {
+
+        private final String name;
+        boolean waitOnMainThread;
+
+        NamedCallbackTask(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getTaskName() {
+            return name;
+        }
+
+        @Override
+        public boolean isWaitOnMainThread() {
+            return waitOnMainThread;
+        }
+    }
+
+    private class ResultReader extends TestTask {
+
+        private final String source;
+        Object value;
+
+        ResultReader(String name, String source) {
+            super(name, log);
+            this.source = source;
+        }
+
+        @Override
+        public void run() {
+            value = getDependencyResult(source);
+            super.run();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * With {@link Config#isCriticalPathFirst} the only worker starts the longest chain first.
+ */
+public class CriticalPathTest {
+
+    @Test
+    public void oneWorker_longestChainFirst() throws InterruptedException {
+        List<String> log = run(true);
+        assertEquals(Arrays.asList("chain-0", "chain-1"), log.subList(0, 2));
+    }
+
+    @Test
+    public void oneWorker_readyOrderWithoutCriticalPath() throws InterruptedException {
+        List<String> log = run(false);
+        assertEquals(Arrays.asList("short", "chain-0", "chain-1", "chain-2"), log);
+    }
+
+    private static List<String> run(boolean criticalPathFirst) throws InterruptedException {
+        List<String> log = Collections.synchronizedList(new ArrayList<String>());
+        Config config = new Config();
+        config.isCriticalPathFirst = criticalPathFirst;
+        ThreadPoolExecutor executor = StartupExecutors.newExecutor("critical-path-test", 1);
+        try {
+            CountDownLatch gate = TestStartups.holdWorker(executor);
+            DGAppStartup startup = TestStartups.newBuilder(executor, config)
+                    .add(new TestTask("short", log))
+                    .add(new TestTask("chain-0", log))
+                    .add(new TestTask("chain-1", log).dependsOn("chain-0"))
+                    .add(new TestTask("chain-2", log).dependsOn("chain-1"))
+                    .create();
+            startup.start();
+            gate.countDown();
+            assertTrue(startup.await("short", 5000));
+            assertTrue(startup.await("chain-2", 5000));
+            return log;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link Task#isDeferred()} tasks wait for the {@link IdleScheduler} after start() returned.
+ */
+public class DeferredTaskTest {
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void deferred_heldUntilIdle() {
+        ManualIdleScheduler idleScheduler = new ManualIdleScheduler();
+        DGAppStartup startup = TestStartups.newBuilder()
+                .setIdleScheduler(idleScheduler)
+                .add(new TestTask("eager", log))
+                .add(new TestTask("deferred", log).deferred())
+                .add(new TestTask("after-deferred", log).dependsOn("eager", "deferred").deferred())
+                .create();
+        startup.start();
+        assertEquals(Collections.singletonList("eager"), log);
+        assertTrue(idleScheduler.hasPendingIdle());
+
+        assertFalse(idleScheduler.runIdle());
+        assertEquals(Arrays.asList("eager", "deferred", "after-deferred"), log);
+        assertTrue(startup.getFuture("after-deferred").isDone());
+    }
+
+    @Test
+    public void deferredMainTasks_runInIdleSlices() {
+        ManualIdleScheduler idleScheduler = new ManualIdleScheduler();
+        Config config = new Config();
+        config.idleSliceMillis = 5;
+        DGAppStartup startup = TestStartups.newBuilder(new DirectExecutor(), config)
+                .setIdleScheduler(idleScheduler)
+                .add(new TestTask("eager", log))
+                .add(new TestTask("deferred-0", log).sleep(10).mainThread().deferred())
+                .add(new TestTask("deferred-1", log).sleep(10).mainThread().deferred())
+                .add(new TestTask("deferred-2", log).sleep(10).mainThread().deferred())
+                .create();
+        startup.start();
+
+        // each task outlasts a slice, so every idle time runs exactly one
+        for (int i = 0; i < 3; i++) {
+            boolean more = idleScheduler.runIdle();
+            assertEquals(2 + i, log.size());
+            assertEquals(i < 2, more);
+        }
+        assertEquals(Arrays.asList("eager", "deferred-0", "deferred-1", "deferred-2"), log);
+    }
+}
@@ -0,0 +1,20 @@
+package com.caij.app.startup;
+
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every task on the calling thread, start() returns with the whole graph done.
+ */
+class DirectExecutor extends ThreadPoolExecutor {
+
+    DirectExecutor() {
+        super(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        command.run();
+    }
+}
@@ -0,0 +1,79 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Dispatch after {@link DGAppStartup.Builder#create()} must not allocate per task.
+ */
+public class DispatchAllocationTest {
+
+    private static final int LAYER_COUNT = 10;
+    private static final int LAYER_WIDTH = 100;
+
+    @Test
+    public void start_doesNotAllocatePerTask() {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // warm up class loading and the jit with a first run
+        createStartup().start();
+
+        DGAppStartup startup = createStartup();
+        assertEquals(LAYER_COUNT * LAYER_WIDTH, startup.getGraph().getTaskCount());
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        startup.start();
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        // one allocated byte per task is already too much
+        assertTrue("allocated " + allocated + " bytes", allocated < LAYER_COUNT * LAYER_WIDTH);
+    }
+
+    private static DGAppStartup createStartup() {
+        // the shared direct executor runs every task on this thread, so all allocations are counted
+        DGAppStartup.Builder builder = TestStartups.newBuilder();
+        for (int layer = 0; layer < LAYER_COUNT; layer++) {
+            for (int i = 0; i < LAYER_WIDTH; i++) {
+                String dependency = layer == 0 ? null : name(layer - 1, i);
+                builder.add(new NoOpTask(name(layer, i), dependency));
+            }
+        }
+        return builder.create();
+    }
+
+    private static String name(int layer, int index) {
+        return "task-" + layer + "-" + index;
+    }
+
+    private static class NoOpTask extends Task {
+
+        private final String name;
+        private final List<String> dependencies;
+
+        NoOpTask(String name, String dependency) {
+            this.name = name;
+            this.dependencies = dependency == null ? null : Collections.singletonList(dependency);
+        }
+
+        @Override
+        public void run() {
+        }
+
+        @Override
+        protected List<String> dependencies() {
+            return dependencies;
+        }
+
+        @Override
+        public String getTaskName() {
+            return name;
+        }
+    }
+}
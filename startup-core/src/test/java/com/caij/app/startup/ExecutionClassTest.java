@@ -0,0 +1,61 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link Task#getExecutionClass()} picks the executor set with
+ * {@link DGAppStartup.Builder#setExecutor(String, java.util.concurrent.Executor)}.
+ */
+public class ExecutionClassTest {
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void tasksReachExecutorOfTheirClass() throws InterruptedException {
+        ThreadPoolExecutor defaultExecutor = StartupExecutors.newExecutor("default", 1);
+        ThreadPoolExecutor ioExecutor = StartupExecutors.newExecutor("io", 1);
+        ThreadPoolExecutor decodeExecutor = StartupExecutors.newExecutor("decode", 1);
+        try {
+            TestTask cpu = new TestTask("cpu", log);
+            TestTask io = new TestTask("io", log).executionClass(Task.EXECUTION_IO);
+            TestTask decode = new TestTask("decode", log).executionClass("decode");
+            TestTask unknown = new TestTask("unknown", log).executionClass("gpu");
+            DGAppStartup startup = new DGAppStartup.Builder()
+                    .setLogger(new TestTask.NoLogger())
+                    .setExecutorService(defaultExecutor)
+                    .setExecutor(Task.EXECUTION_IO, ioExecutor)
+                    .setExecutor("decode", decodeExecutor)
+                    .add(cpu)
+                    .add(io)
+                    .add(decode)
+                    .add(unknown)
+                    .create();
+            startup.start();
+            for (TestTask task : new TestTask[]{cpu, io, decode, unknown}) {
+                assertTrue(task.getTaskName(), startup.await(task.getTaskName(), 5000));
+            }
+
+            assertRanOn(io, "-io-");
+            assertRanOn(decode, "-decode-");
+            // classes without an executor of their own fall back to the executor service
+            assertRanOn(cpu, "-default-");
+            assertRanOn(unknown, "-default-");
+        } finally {
+            defaultExecutor.shutdownNow();
+            ioExecutor.shutdownNow();
+            decodeExecutor.shutdownNow();
+        }
+    }
+
+    private static void assertRanOn(TestTask task, String poolName) {
+        String threadName = task.runThread.getName();
+        assertTrue(task.getTaskName() + " ran on " + threadName, threadName.contains(poolName));
+    }
+}
@@ -0,0 +1,113 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link Config#failurePolicy} and {@link Config#isStrictMode}.
+ */
+public class FailurePolicyTest {
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+    private final RuntimeException failure = new RuntimeException("boom");
+
+    @Test
+    public void continuePolicy_runsDependents() {
+        StartupResult result = newStartup(Config.FAILURE_POLICY_CONTINUE, false).start();
+
+        assertEquals(Arrays.asList("failing", "dependent", "grandchild"), log);
+        assertSame(failure, result.getFailures().get("failing"));
+        assertEquals(1, result.getFailures().size());
+        assertTrue(result.getSkippedTasks().isEmpty());
+    }
+
+    @Test
+    public void skipPolicy_reportsDependentsAsSkipped() {
+        StartupResult result = newStartup(Config.FAILURE_POLICY_SKIP_DEPENDENTS, false).start();
+
+        assertEquals(Collections.singletonList("failing"), log);
+        assertEquals(1, result.getFailures().size());
+        assertEquals(Arrays.asList("dependent", "grandchild"), result.getSkippedTasks());
+    }
+
+    @Test
+    public void failPolicy_reportsDependentsWithCause() {
+        StartupResult result = newStartup(Config.FAILURE_POLICY_FAIL_DEPENDENTS, false).start();
+
+        assertEquals(Collections.singletonList("failing"), log);
+        assertEquals(3, result.getFailures().size());
+        assertSame(failure, result.getFailures().get("dependent"));
+        assertSame(failure, result.getFailures().get("grandchild"));
+        assertTrue(result.getSkippedTasks().isEmpty());
+    }
+
+    @Test
+    public void strictMode_startThrowsOnce() {
+        DGAppStartup startup = newStartup(Config.FAILURE_POLICY_SKIP_DEPENDENTS, true);
+        try {
+            startup.start();
+            fail("start() must throw");
+        } catch (RuntimeException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    @Test
+    public void strictMode_neverThrowsOnWorkerAfterStartReturned() throws InterruptedException {
+        final List<Throwable> workerThrowables = Collections.synchronizedList(new ArrayList<Throwable>());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>()) {
+            @Override
+            protected void afterExecute(Runnable r, Throwable t) {
+                if (t != null) {
+                    workerThrowables.add(t);
+                }
+            }
+        };
+        Config config = new Config();
+        config.isStrictMode = true;
+        DGAppStartup startup = new DGAppStartup.Builder()
+                .setConfig(config)
+                .setLogger(new TestTask.NoLogger())
+                .setExecutorService(executor)
+                // nothing waits for it, it fails after start() returned
+                .add(new TestTask("late", log).sleep(50).fail(failure))
+                .create();
+        StartupResult result = startup.start();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertTrue(workerThrowables.toString(), workerThrowables.isEmpty());
+        assertFalse(result.isSuccess());
+        assertSame(failure, result.getFailures().get("late"));
+        assertNull(startup.getFuture("late").getResult());
+    }
+
+    private DGAppStartup newStartup(int failurePolicy, boolean strictMode) {
+        Config config = new Config();
+        config.failurePolicy = failurePolicy;
+        config.isStrictMode = strictMode;
+        return new DGAppStartup.Builder()
+                .setConfig(config)
+                .setLogger(new TestTask.NoLogger())
+                .setExecutorService(new DirectExecutor())
+                .add(new TestTask("failing", log).fail(failure))
+                .add(new TestTask("dependent", log).dependsOn("failing"))
+                .add(new TestTask("grandchild", log).dependsOn("dependent"))
+                .create();
+    }
+}
@@ -0,0 +1,111 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link Task#isLazy()} tasks run on {@link DGAppStartup#request(String)} and
+ * {@link DGAppStartup#await(String)} only.
+ */
+public class LazyTaskTest {
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void await_runsLazyTaskWithLazyDependenciesOnce() {
+        DGAppStartup startup = TestStartups.newBuilder()
+                .add(new TestTask("eager", log))
+                .add(new TestTask("lazy-dependency", log).lazy())
+                .add(new TestTask("lazy", log).dependsOn("lazy-dependency").lazy())
+                .create();
+        startup.start();
+        assertEquals(Collections.singletonList("eager"), log);
+        assertFalse(startup.getFuture("lazy").isDone());
+
+        startup.await("lazy");
+        assertEquals(Arrays.asList("eager", "lazy-dependency", "lazy"), log);
+
+        startup.request("lazy");
+        assertTrue(startup.await("lazy", 0));
+        assertEquals(3, log.size());
+    }
+
+    @Test
+    public void request_startsWithoutWaiting() throws Exception {
+        ThreadPoolExecutor executor = StartupExecutors.newExecutor("lazy-test", 1);
+        try {
+            TestTask lazy = new TestTask("lazy", log).sleep(50).lazy();
+            DGAppStartup startup = TestStartups.newBuilder(executor).add(lazy).create();
+            startup.start();
+
+            startup.request("lazy");
+            startup.getFuture("lazy").get(5, TimeUnit.SECONDS);
+            assertEquals(Collections.singletonList("lazy"), log);
+            assertNotSame(Thread.currentThread(), lazy.runThread);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void await_onStartThreadRunsLazyMainTaskInline() {
+        // a looper that is never drained, await() must not wait for it
+        final List<Runnable> looper = new ArrayList<>();
+        TestTask lazy = new TestTask("lazy-main", log).mainThread().lazy();
+        DGAppStartup startup = TestStartups.newBuilder()
+                .setMainThreadExecutor(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        looper.add(command);
+                    }
+                })
+                .add(new TestTask("eager", log))
+                .add(lazy)
+                .create();
+        startup.start();
+
+        assertTrue(startup.await("lazy-main", 5000));
+        assertSame(Thread.currentThread(), lazy.runThread);
+
+        // the looper copy finds the task done
+        for (Runnable runnable : looper) {
+            runnable.run();
+        }
+        assertEquals(Arrays.asList("eager", "lazy-main"), log);
+    }
+
+    @Test
+    public void await_fromMainTaskDuringStartRunsLazyMainTask() {
+        final DGAppStartup[] holder = new DGAppStartup[1];
+        TestTask lazy = new TestTask("lazy-main", log).mainThread().lazy();
+        TestTask main = new TestTask("main", log) {
+            @Override
+            public void run() {
+                holder[0].await("lazy-main");
+                super.run();
+            }
+        }.mainThread();
+        holder[0] = TestStartups.newBuilder()
+                .setMainThreadExecutor(new DirectExecutor())
+                .add(main)
+                .add(lazy)
+                .create();
+        holder[0].start();
+
+        assertEquals(Arrays.asList("lazy-main", "main"), log);
+        assertSame(Thread.currentThread(), lazy.runThread);
+    }
+}
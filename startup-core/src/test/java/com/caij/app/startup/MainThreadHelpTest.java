@@ -0,0 +1,57 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link Config#isMainThreadHelp} may only make start() return earlier.
+ */
+public class MainThreadHelpTest {
+
+    private static final long MAIN_MILLIS = 30;
+    private static final long CHAIN_MILLIS = 100;
+    private static final long UNRELATED_MILLIS = 600;
+
+    @Test
+    public void start_neverWaitsForUnrelatedTask() {
+        for (int i = 0; i < 3; i++) {
+            long withoutHelp = startMillis(false);
+            long withHelp = startMillis(true);
+            // the only worker runs the chain while the main thread is busy, a main thread helping
+            // with anything but the chain would block start() for a whole unrelated task
+            assertTrue("help " + withHelp + "ms, no help " + withoutHelp + "ms",
+                    withHelp < UNRELATED_MILLIS / 2 && withHelp <= withoutHelp);
+        }
+    }
+
+    private static long startMillis(boolean help) {
+        List<String> log = Collections.synchronizedList(new ArrayList<String>());
+        Config config = new Config();
+        config.isMainThreadHelp = help;
+        ThreadPoolExecutor executor = StartupExecutors.newExecutor("help-test", 1);
+        executor.prestartAllCoreThreads();
+        try {
+            DGAppStartup startup = new DGAppStartup.Builder()
+                    .setConfig(config)
+                    .setLogger(new TestTask.NoLogger())
+                    .setExecutorService(executor)
+                    .add(new TestTask("main", log).sleep(MAIN_MILLIS).mainThread())
+                    .add(new TestTask("chain-0", log).sleep(CHAIN_MILLIS))
+                    .add(new TestTask("unrelated-0", log).sleep(UNRELATED_MILLIS))
+                    .add(new TestTask("unrelated-1", log).sleep(UNRELATED_MILLIS))
+                    .add(new TestTask("chain-1", log).sleep(CHAIN_MILLIS / 10).dependsOn("chain-0").waitOnMainThread())
+                    .create();
+            long start = System.nanoTime();
+            startup.start();
+            return (System.nanoTime() - start) / 1000000;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link Config#overrunPolicy} when a waited for task misses its deadline.
+ */
+public class OverrunPolicyTest {
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void notifyPolicy_returnsAndRecordsOverrun() {
+        ThreadPoolExecutor executor = StartupExecutors.newExecutor("overrun-test", 1);
+        try {
+            StartupResult result = newBuilder(Config.OVERRUN_POLICY_NOTIFY, false, executor).create().start();
+
+            // recorded without a TaskProfileStore
+            assertEquals(Collections.singletonList("slow"), result.getOverrunTasks());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failPolicyInStrictMode_throwsAndHandsMainTasksToLooper() throws Exception {
+        final List<Thread> looperThreads = Collections.synchronizedList(new ArrayList<Thread>());
+        final ThreadPoolExecutor looper = StartupExecutors.newExecutor("looper", 1);
+        ThreadPoolExecutor executor = StartupExecutors.newExecutor("overrun-test", 1);
+        try {
+            DGAppStartup startup = newBuilder(Config.OVERRUN_POLICY_FAIL, true, executor)
+                    .setMainThreadExecutor(new Executor() {
+                        @Override
+                        public void execute(final Runnable command) {
+                            looper.execute(new Runnable() {
+                                @Override
+                                public void run() {
+                                    looperThreads.add(Thread.currentThread());
+                                    command.run();
+                                }
+                            });
+                        }
+                    })
+                    .add(new TestTask("main-after-slow", log).dependsOn("slow").mainThread())
+                    .create();
+            try {
+                startup.start();
+                fail("start() must throw in strict mode");
+            } catch (RuntimeException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("slow"));
+            }
+
+            // start() detached the main queue before throwing, the looper runs the main task
+            TaskFuture<Object> future = startup.getFuture("main-after-slow");
+            future.get(5, TimeUnit.SECONDS);
+            assertEquals(1, looperThreads.size());
+            assertSame(looperThreads.get(0), ((TestTask) startup.getGraph().findTask("main-after-slow")).runThread);
+        } finally {
+            executor.shutdownNow();
+            looper.shutdownNow();
+        }
+    }
+
+    private DGAppStartup.Builder newBuilder(int overrunPolicy, boolean strictMode, ThreadPoolExecutor executor) {
+        Config config = new Config();
+        config.overrunPolicy = overrunPolicy;
+        config.isStrictMode = strictMode;
+        return TestStartups.newBuilder(executor, config)
+                .add(new TestTask("slow", log).sleep(200).deadline(20).waitOnMainThread());
+    }
+}
@@ -0,0 +1,99 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Disabled and {@link Task#runOnlyForDependents()} tasks are removed in create().
+ */
+public class PruneTest {
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void disabledTaskInChain_dependentsRewiredToItsDependencies() {
+        DGAppStartup startup = TestStartups.newBuilder()
+                .add(new TestTask("first", log))
+                .add(new TestTask("disabled", log).dependsOn("first").disabled())
+                .add(new TestTask("last", log).dependsOn("disabled"))
+                .create();
+        TaskGraph graph = startup.getGraph();
+
+        assertEquals(2, graph.getTaskCount());
+        assertTrue(graph.isPruned("disabled"));
+        assertEquals(Collections.singletonList("first"), parentNames(graph, "last"));
+
+        startup.start();
+        assertEquals(Arrays.asList("first", "last"), log);
+        assertTrue(startup.getFuture("disabled").isDone());
+    }
+
+    @Test
+    public void runOnlyForDependents_cascadesWhenNothingNeedsIt() {
+        DGAppStartup startup = TestStartups.newBuilder()
+                .add(new TestTask("helper-root", log).onlyForDependents())
+                .add(new TestTask("helper", log).dependsOn("helper-root").onlyForDependents())
+                .add(new TestTask("disabled", log).dependsOn("helper").disabled())
+                .add(new TestTask("needed", log).onlyForDependents())
+                .add(new TestTask("user", log).dependsOn("needed"))
+                .create();
+        TaskGraph graph = startup.getGraph();
+
+        assertTrue(graph.isPruned("helper-root"));
+        assertTrue(graph.isPruned("helper"));
+        assertTrue(graph.isPruned("disabled"));
+        assertFalse(graph.isPruned("needed"));
+        startup.start();
+        assertEquals(Arrays.asList("needed", "user"), log);
+    }
+
+    @Test
+    public void allTasksPruned_projectStillFinishes() {
+        final List<String> events = new ArrayList<>();
+        DGAppStartup startup = TestStartups.newBuilder()
+                .add(new TestTask("helper", log).onlyForDependents())
+                .add(new TestTask("disabled", log).dependsOn("helper").disabled())
+                .create();
+        startup.addOnProjectExecuteListener(new OnProjectListener() {
+            @Override
+            public void onProjectStart() {
+                events.add("start");
+            }
+
+            @Override
+            public void onProjectFinish() {
+                events.add("finish");
+            }
+
+            @Override
+            public void onStageFinish() {
+                events.add("stage");
+            }
+        });
+
+        assertEquals(0, startup.getGraph().getTaskCount());
+        assertTrue(startup.start().isSuccess());
+        assertEquals(Arrays.asList("start", "stage", "finish"), events);
+        assertNotNull(startup.getMetrics());
+        assertNotNull(startup.getReport());
+        assertTrue(log.isEmpty());
+    }
+
+    private static List<String> parentNames(TaskGraph graph, String taskName) {
+        int id = graph.findTask(taskName).getId();
+        List<String> names = new ArrayList<>();
+        for (int i = graph.getParentOffsets()[id]; i < graph.getParentOffsets()[id + 1]; i++) {
+            names.add(graph.getTasks()[graph.getParentIds()[i]].getTaskName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,74 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Ready tasks share one queue per executor, see {@link ReadyQueue}.
+ */
+public class ReadyOrderTest {
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void oneWorker_priorityHoldsAcrossReleasedBatches() throws InterruptedException {
+        ThreadPoolExecutor executor = StartupExecutors.newExecutor("ready-order-test", 1);
+        try {
+            CountDownLatch gate = TestStartups.holdWorker(executor);
+            DGAppStartup startup = TestStartups.newBuilder(executor)
+                    .add(new TestTask("a", log).priority(5))
+                    .add(new TestTask("b", log).priority(5))
+                    .add(new TestTask("a-low", log).priority(9).dependsOn("a"))
+                    .add(new TestTask("a-mid", log).priority(5).dependsOn("a"))
+                    .add(new TestTask("b-high", log).priority(0).dependsOn("b"))
+                    .create();
+            startup.start();
+            gate.countDown();
+            for (String name : Arrays.asList("a-low", "a-mid", "b-high")) {
+                assertTrue(name, startup.await(name, 5000));
+            }
+            // b-high became ready after the batch of a, it still runs before it
+            assertEquals(Arrays.asList("a", "b", "b-high", "a-mid", "a-low"), log);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void mainThreadHelp_onlyTakesWaitPathTasks() throws InterruptedException {
+        Config config = new Config();
+        config.isMainThreadHelp = true;
+        ThreadPoolExecutor executor = StartupExecutors.newExecutor("ready-order-test", 1);
+        try {
+            CountDownLatch gate = TestStartups.holdWorker(executor);
+            TestTask unrelated = new TestTask("unrelated", log);
+            TestTask needed = new TestTask("needed", log).waitOnMainThread();
+            DGAppStartup startup = TestStartups.newBuilder(executor, config)
+                    .add(unrelated)
+                    .add(needed)
+                    .create();
+            // the only worker is held, start() can only return by running the wait task itself
+            startup.start();
+            assertSame(Thread.currentThread(), needed.runThread);
+            assertFalse(log.contains("unrelated"));
+
+            gate.countDown();
+            assertTrue(startup.await("unrelated", 5000));
+            assertNotSame(Thread.currentThread(), unrelated.runThread);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link RegressionChecker} on synthetic timings, no scheduler involved.
+ */
+public class RegressionCheckerTest {
+
+    private static final long MILLIS = 1000000;
+
+    @Test
+    public void check_flagsOnlyRealRegressions() {
+        RegressionChecker checker = newBaseline(new RegressionChecker(null));
+
+        // within the noise of the baseline
+        assertFalse(checker.check("stable", 11 * MILLIS, MILLIS).hasRegression());
+        // far slower, but the difference is below the absolute floor
+        assertFalse(checker.check("tiny", 200000, 0).hasRegression());
+        // no baseline at all
+        assertFalse(checker.check("unknown", 100 * MILLIS, 0).hasRegression());
+
+        RegressionReport report = checker.check("stable", 16 * MILLIS, MILLIS);
+        assertTrue(report.hasRegression());
+        assertEquals(1, report.getRegressions().size());
+        RegressionReport.Regression regression = report.getRegressions().get(0);
+        assertEquals(RegressionReport.METRIC_RUN, regression.getMetric());
+        assertEquals(10.5 * MILLIS, regression.getMedianNanos(), MILLIS / 2);
+
+        report = checker.check("stable", 10 * MILLIS, 8 * MILLIS);
+        assertEquals(RegressionReport.METRIC_QUEUE, report.getRegressions().get(0).getMetric());
+    }
+
+    @Test
+    public void check_ignoresOutliersInBaseline() {
+        RegressionChecker checker = newBaseline(new RegressionChecker(null));
+        // two cold launches must not lift the bar
+        checker.addBaseline("stable", 100 * MILLIS, MILLIS);
+        checker.addBaseline("stable", 100 * MILLIS, MILLIS);
+        assertTrue(checker.check("stable", 16 * MILLIS, MILLIS).hasRegression());
+    }
+
+    @Test
+    public void save_roundTripsBaseline() throws Exception {
+        File file = File.createTempFile("baseline", ".bin");
+        try {
+            newBaseline(new RegressionChecker(file)).save();
+            RegressionChecker loaded = new RegressionChecker(file);
+            loaded.load();
+            assertEquals(20, loaded.getSampleCount("stable"));
+            assertTrue(loaded.check("stable", 16 * MILLIS, MILLIS).hasRegression());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void load_keepsBaselineAddedInMemory() throws Exception {
+        File file = File.createTempFile("baseline", ".bin");
+        try {
+            newBaseline(new RegressionChecker(file)).save();
+            RegressionChecker checker = new RegressionChecker(file);
+            checker.addBaseline("stable", 10 * MILLIS, MILLIS);
+            for (int i = 0; i < 3; i++) {
+                checker.addBaseline("fresh", MILLIS, 0);
+            }
+            checker.load();
+            assertEquals(21, checker.getSampleCount("stable"));
+            assertEquals(3, checker.getSampleCount("fresh"));
+
+            // the file is merged only once
+            checker.load();
+            assertEquals(21, checker.getSampleCount("stable"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void toJson_listsRegressions() {
+        RegressionReport report = newBaseline(new RegressionChecker(null))
+                .check("stable", 16 * MILLIS, MILLIS);
+        String json = report.toJson();
+        assertTrue(json, json.startsWith("{\"regressed\":true,\"checked\":1,\"regressions\":[{\"task\":\"stable\""));
+        assertTrue(json, json.contains("\"metric\":\"run\""));
+    }
+
+    private static RegressionChecker newBaseline(RegressionChecker checker) {
+        Random random = new Random(1);
+        for (int i = 0; i < 20; i++) {
+            checker.addBaseline("stable", 10 * MILLIS + random.nextInt((int) MILLIS), MILLIS);
+            checker.addBaseline("tiny", 50000, 0);
+        }
+        return checker;
+    }
+}
@@ -0,0 +1,91 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Named {@link Stage}s finish with their own tasks, independent of the rest of the graph.
+ */
+public class StageTest {
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void awaitStage_returnsBeforeUnrelatedTasks() {
+        ThreadPoolExecutor executor = StartupExecutors.newExecutor("stage-test", 2);
+        try {
+            DGAppStartup startup = new DGAppStartup.Builder()
+                    .setLogger(new TestTask.NoLogger())
+                    .setExecutorService(executor)
+                    .add(new TestTask("network", log).sleep(10).stages("first-frame"))
+                    .add(new TestTask("slow", log).sleep(500))
+                    .create();
+            startup.start();
+
+            assertTrue(startup.awaitStage("first-frame", 5000));
+            assertTrue(startup.isStageFinished("first-frame"));
+            assertEquals(Collections.singletonList("network"), log);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void awaitStage_interruptedReturnsFalse() {
+        ThreadPoolExecutor executor = StartupExecutors.newExecutor("stage-test", 1);
+        try {
+            DGAppStartup startup = new DGAppStartup.Builder()
+                    .setLogger(new TestTask.NoLogger())
+                    .setExecutorService(executor)
+                    .add(new TestTask("slow", log).sleep(500).stages("first-frame"))
+                    .create();
+            startup.start();
+
+            Thread.currentThread().interrupt();
+            assertFalse(startup.awaitStage("first-frame"));
+            // the flag is kept for the caller, interrupted() also clears it for the next test
+            assertTrue(Thread.interrupted());
+            assertTrue(startup.awaitStage("first-frame"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void listeners_calledOnceWhenLastTaskOfStageFinished() {
+        final List<String> events = new ArrayList<>();
+        OnStageListener listener = new OnStageListener() {
+            @Override
+            public void onStageFinish(String stageName) {
+                events.add(stageName + ":" + log.size());
+            }
+        };
+        DGAppStartup startup = new DGAppStartup.Builder()
+                .setLogger(new TestTask.NoLogger())
+                .setExecutorService(new DirectExecutor())
+                .addOnStageListener("ui", listener)
+                .add(new TestTask("a", log).stages("ui"))
+                .add(new TestTask("b", log).dependsOn("a").stages("ui", "data"))
+                .add(new TestTask("c", log).dependsOn("b"))
+                .create();
+        assertFalse(startup.isStageFinished("ui"));
+        startup.addOnStageListener("data", listener);
+        startup.start();
+
+        // each stage fired right after its last task, before c
+        assertEquals(Arrays.asList("ui:2", "data:2"), events);
+
+        // added to a finished stage it is called right away
+        startup.addOnStageListener("ui", listener);
+        assertEquals(Arrays.asList("ui:2", "data:2", "ui:3"), events);
+    }
+}
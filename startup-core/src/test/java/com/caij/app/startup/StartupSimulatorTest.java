@@ -0,0 +1,100 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link StartupSimulator} is deterministic, keeps microseconds and leaves the startup untouched.
+ */
+public class StartupSimulatorTest {
+
+    private static final String[] NAMES = {"root", "left", "middle", "right", "join"};
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void run_sameGraphGivesSameTimes() {
+        DGAppStartup startup = createStartup();
+        for (int workerCount = 1; workerCount <= 3; workerCount++) {
+            SimulationResult first = newSimulator(startup, workerCount).run();
+            SimulationResult second = newSimulator(startup, workerCount).run();
+            assertEquals(first.getMakespan(), second.getMakespan());
+            for (String name : NAMES) {
+                assertEquals(name, first.getTaskStartTime(name), second.getTaskStartTime(name));
+                assertEquals(name, first.getTaskFinishTime(name), second.getTaskFinishTime(name));
+            }
+        }
+    }
+
+    @Test
+    public void run_moreWorkersOnlyShortenWideLevels() {
+        DGAppStartup startup = createStartup();
+
+        SimulationResult oneWorker = newSimulator(startup, 1).run();
+        assertEquals(10 + 20 + 30 + 40 + 5, oneWorker.getMakespan());
+
+        SimulationResult threeWorkers = newSimulator(startup, 3).run();
+        assertEquals(10 + 40 + 5, threeWorkers.getMakespan());
+        assertEquals(10, threeWorkers.getTaskStartTime("left"));
+        assertEquals(10, threeWorkers.getTaskStartTime("right"));
+        assertEquals(50, threeWorkers.getTaskStartTime("join"));
+    }
+
+    @Test
+    public void run_leavesTasksUntouched() {
+        DGAppStartup startup = createStartup();
+        newSimulator(startup, 2).run();
+        assertTrue(log.isEmpty());
+
+        startup.start();
+        assertEquals(NAMES.length, log.size());
+    }
+
+    @Test
+    public void run_addsUpSubMillisecondEstimates() {
+        TaskProfileStore profileStore = new TaskProfileStore(null);
+        DGAppStartup.Builder builder = new DGAppStartup.Builder()
+                .setLogger(new TestTask.NoLogger())
+                .setExecutorService(new DirectExecutor())
+                .setProfileStore(profileStore);
+        String previous = null;
+        for (int i = 0; i < 10; i++) {
+            String name = "step" + i;
+            profileStore.record(name, 400000);
+            builder.add(previous == null ? new TestTask(name, log) : new TestTask(name, log).dependsOn(previous));
+            previous = name;
+        }
+
+        SimulationResult result = new StartupSimulator(builder.create(), 1).run();
+        assertEquals(10 * 400, result.getMakespanMicros());
+        assertEquals(4, result.getMakespan());
+        assertEquals(400, result.getTaskStartMicros("step1"));
+    }
+
+    private DGAppStartup createStartup() {
+        return new DGAppStartup.Builder()
+                .setLogger(new TestTask.NoLogger())
+                .setExecutorService(new DirectExecutor())
+                .add(new TestTask("root", log))
+                .add(new TestTask("left", log).dependsOn("root"))
+                .add(new TestTask("middle", log).dependsOn("root"))
+                .add(new TestTask("right", log).dependsOn("root"))
+                .add(new TestTask("join", log).dependsOn("left", "middle", "right"))
+                .create();
+    }
+
+    private static StartupSimulator newSimulator(DGAppStartup startup, int workerCount) {
+        return new StartupSimulator(startup, workerCount)
+                .setDuration("root", 10)
+                .setDuration("left", 20)
+                .setDuration("middle", 30)
+                .setDuration("right", 40)
+                .setDuration("join", 5);
+    }
+}
@@ -0,0 +1,166 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link TaskFuture} and {@link Task#getDependencyResult(String)}.
+ */
+public class TaskFutureTest {
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void getDependencyResult_readsValueOfDependency() {
+        ResultReader reader = new ResultReader("reader", "source");
+        reader.dependsOn("source");
+        DGAppStartup startup = TestStartups.newBuilder()
+                .add(new TestTask("source", log).result("value"))
+                .add(reader)
+                .create();
+        startup.start();
+
+        assertEquals("value", reader.value);
+        assertEquals("value", startup.getFuture("source").getResult());
+    }
+
+    @Test
+    public void getDependencyResult_usesCompiledGraphOfRegistry() {
+        // registry tasks declare no dependencies() at all
+        final ResultReader reader = new ResultReader("reader", "source");
+        DGAppStartup startup = TestStartups.newBuilder()
+                .setTaskRegistry(new TaskRegistry() {
+                    @Override
+                    public Task[] createTasks() {
+                        return new Task[]{new TestTask("source", log).result(42), reader};
+                    }
+
+                    @Override
+                    public int[] getDependencyOffsets() {
+                        return new int[]{0, 0, 1};
+                    }
+
+                    @Override
+                    public int[] getDependencies() {
+                        return new int[]{0};
+                    }
+
+                    @Override
+                    public int[] getChildOffsets() {
+                        return new int[]{0, 1, 1};
+                    }
+
+                    @Override
+                    public int[] getChildren() {
+                        return new int[]{1};
+                    }
+
+                    @Override
+                    public int[] getLevels() {
+                        return new int[]{0, 1};
+                    }
+                })
+                .create();
+        startup.start();
+
+        assertEquals(42, reader.value);
+    }
+
+    @Test
+    public void getDependencyResult_rejectsOtherTask() {
+        ResultReader reader = new ResultReader("reader", "other");
+        DGAppStartup startup = TestStartups.newBuilder()
+                .add(new TestTask("other", log))
+                .add(reader)
+                .create();
+        startup.start();
+
+        assertTrue(String.valueOf(reader.failure), reader.failure instanceof IllegalStateException);
+    }
+
+    @Test
+    public void future_completesForFailedAndSkippedTasks() {
+        RuntimeException failure = new RuntimeException("boom");
+        Config config = new Config();
+        config.failurePolicy = Config.FAILURE_POLICY_SKIP_DEPENDENTS;
+        DGAppStartup startup = TestStartups.newBuilder()
+                .setConfig(config)
+                .add(new TestTask("failing", log).fail(failure))
+                .add(new TestTask("skipped", log).dependsOn("failing"))
+                .add(new TestTask("skipped-too", log).dependsOn("skipped"))
+                .create();
+        startup.start();
+
+        for (String name : Arrays.asList("failing", "skipped", "skipped-too")) {
+            TaskFuture<Object> future = startup.getFuture(name);
+            assertTrue(name, future.isDone());
+            assertFalse(name, future.isSuccess());
+            assertSame(failure, future.getFailure());
+            assertNull(future.getResult());
+        }
+        assertEquals(Collections.singletonList("failing"), log);
+    }
+
+    @Test
+    public void addListener_runsBeforeDependentsInOrder() {
+        DGAppStartup startup = TestStartups.newBuilder()
+                .add(new TestTask("first", log))
+                .add(new TestTask("second", log).dependsOn("first"))
+                .create();
+        TaskFuture<Object> future = startup.getFuture("first");
+        future.addListener(new LogListener("listener-1"));
+        future.addListener(new LogListener("listener-2"));
+        startup.start();
+        // added after completion it runs right away
+        future.addListener(new LogListener("listener-3"));
+
+        assertEquals(Arrays.asList("first", "listener-1", "listener-2", "second", "listener-3"), log);
+    }
+
+    private class LogListener implements OnTaskCompleteListener<Object> {
+
+        private final String name;
+
+        LogListener(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void onComplete(TaskFuture<Object> future) {
+            log.add(name);
+        }
+    }
+
+    private class ResultReader extends TestTask {
+
+        private final String source;
+        Object value;
+        RuntimeException failure;
+
+        ResultReader(String name, String source) {
+            super(name, log);
+            this.source = source;
+        }
+
+        @Override
+        public void run() {
+            super.run();
+            try {
+                value = getDependencyResult(source);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+    }
+}
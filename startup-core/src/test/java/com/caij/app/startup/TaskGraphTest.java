@@ -0,0 +1,57 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Shape and validation of the graph compiled in create().
+ */
+public class TaskGraphTest {
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void diamond_depthWidthAndHistogram() {
+        TaskGraph graph = TestStartups.newBuilder()
+                .add(new TestTask("join", log).dependsOn("left", "right"))
+                .add(new TestTask("right", log).dependsOn("root"))
+                .add(new TestTask("left", log).dependsOn("root"))
+                .add(new TestTask("root", log))
+                .create()
+                .getGraph();
+
+        assertEquals(4, graph.getTaskCount());
+        assertEquals(3, graph.getDepth());
+        assertEquals(2, graph.getMaxWidth());
+        // one start task, two tasks with one dependency, the join with two
+        assertTrue(Arrays.toString(graph.getInDegreeHistogram()),
+                Arrays.equals(new int[]{1, 2, 1}, graph.getInDegreeHistogram()));
+        List<String> names = graph.getTaskNames();
+        assertEquals("root", names.get(0));
+        assertEquals("join", names.get(3));
+    }
+
+    @Test
+    public void cycle_messageNamesThePath() {
+        DGAppStartup.Builder builder = TestStartups.newBuilder()
+                .add(new TestTask("root", log))
+                .add(new TestTask("a", log).dependsOn("root", "c"))
+                .add(new TestTask("b", log).dependsOn("a"))
+                .add(new TestTask("c", log).dependsOn("b"))
+                .add(new TestTask("outside", log).dependsOn("c"));
+        try {
+            builder.create();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("circular dependency: a -> b -> c -> a", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link TaskProfileStore} keeps sub millisecond run times.
+ */
+public class TaskProfileStoreTest {
+
+    @Test
+    public void record_keepsSubMillisecondRunTime() {
+        TaskProfileStore store = new TaskProfileStore(null);
+        for (int i = 0; i < 5; i++) {
+            store.record("short", 200000);
+        }
+        assertEquals(200, store.getEstimatedMicros("short"));
+        assertEquals(0.2f, store.getProfile("short").getEwma(), 0.001);
+        assertEquals(0.2f, store.getProfile("short").getP50(), 0.001);
+        assertEquals(-1, store.getEstimatedMicros("unknown"));
+    }
+
+    @Test
+    public void save_roundTripsMicros() throws Exception {
+        File file = File.createTempFile("profile", ".bin");
+        try {
+            TaskProfileStore store = new TaskProfileStore(file);
+            store.record("short", 300000);
+            store.record("long", 12000000);
+            store.save();
+
+            TaskProfileStore loaded = new TaskProfileStore(file);
+            loaded.load();
+            assertEquals(300, loaded.getEstimatedMicros("short"));
+            assertEquals(12000, loaded.getEstimatedMicros("long"));
+            assertTrue(loaded.getProfile("long").getP95() > 11.9f);
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * A {@link TaskRegistry} is linked as generated, without sorting the tasks again.
+ */
+public class TaskRegistryTest {
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void link_keepsRegistryOrderAndShape() {
+        // diamond: a -> b, a -> c, b and c -> d
+        ArrayRegistry registry = diamond(new TestTask("a", log), new TestTask("b", log),
+                new TestTask("c", log), new TestTask("d", log));
+        DGAppStartup startup = TestStartups.newBuilder().setTaskRegistry(registry).create();
+        TaskGraph graph = startup.getGraph();
+
+        assertEquals(Arrays.asList("a", "b", "c", "d"), graph.getTaskNames());
+        assertEquals(1, graph.getStartTasks().length);
+        assertEquals(3, graph.getDepth());
+        assertEquals(2, graph.getMaxWidth());
+        assertTrue(Arrays.equals(new int[]{1, 2, 1}, graph.getInDegreeHistogram()));
+        assertEquals("d", graph.findTask("d").getTaskName());
+        // sorting child ranges must not write into the registry's constants
+        assertNotSame(registry.children, graph.getChildIds());
+
+        startup.start();
+        assertEquals(4, log.size());
+        assertEquals("a", log.get(0));
+        assertEquals("d", log.get(3));
+    }
+
+    @Test
+    public void link_rejectsDuplicateTaskName() {
+        ArrayRegistry registry = diamond(new TestTask("a", log), new TestTask("b", log),
+                new TestTask("b", log), new TestTask("d", log));
+        try {
+            TestStartups.newBuilder().setTaskRegistry(registry).create();
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("task name b"));
+        }
+    }
+
+    @Test
+    public void link_prunesDisabledTask() {
+        ArrayRegistry registry = diamond(new TestTask("a", log), new TestTask("b", log).disabled(),
+                new TestTask("c", log), new TestTask("d", log));
+        DGAppStartup startup = TestStartups.newBuilder().setTaskRegistry(registry).create();
+        TaskGraph graph = startup.getGraph();
+
+        assertEquals(Arrays.asList("a", "c", "d"), graph.getTaskNames());
+        assertEquals(Collections.singleton("b"), graph.getPrunedTaskNames());
+        startup.start();
+        assertEquals(Arrays.asList("a", "c", "d"), log);
+    }
+
+    private static ArrayRegistry diamond(Task a, Task b, Task c, Task d) {
+        return new ArrayRegistry(new Task[]{a, b, c, d},
+                new int[]{0, 0, 1, 2, 4}, new int[]{0, 0, 1, 2},
+                new int[]{0, 2, 3, 4, 4}, new int[]{1, 2, 3, 3},
+                new int[]{0, 1, 1, 2});
+    }
+
+    private static class ArrayRegistry implements TaskRegistry {
+
+        final Task[] tasks;
+        final int[] dependencyOffsets;
+        final int[] dependencies;
+        final int[] childOffsets;
+        final int[] children;
+        final int[] levels;
+
+        ArrayRegistry(Task[] tasks, int[] dependencyOffsets, int[] dependencies,
+                      int[] childOffsets, int[] children, int[] levels) {
+            this.tasks = tasks;
+            this.dependencyOffsets = dependencyOffsets;
+            this.dependencies = dependencies;
+            this.childOffsets = childOffsets;
+            this.children = children;
+            this.levels = levels;
+        }
+
+        @Override
+        public Task[] createTasks() {
+            return tasks;
+        }
+
+        @Override
+        public int[] getDependencyOffsets() {
+            return dependencyOffsets;
+        }
+
+        @Override
+        public int[] getDependencies() {
+            return dependencies;
+        }
+
+        @Override
+        public int[] getChildOffsets() {
+            return childOffsets;
+        }
+
+        @Override
+        public int[] getChildren() {
+            return children;
+        }
+
+        @Override
+        public int[] getLevels() {
+            return levels;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.caij.app.startup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Builders and executor helpers shared by the scheduler tests.
+ */
+final class TestStartups {
+
+    private TestStartups() {
+    }
+
+    /**
+     * @return builder running every task inline, start() returns with the whole graph done
+     */
+    static DGAppStartup.Builder newBuilder() {
+        return newBuilder(new DirectExecutor());
+    }
+
+    static DGAppStartup.Builder newBuilder(ThreadPoolExecutor executor) {
+        return newBuilder(executor, new Config());
+    }
+
+    static DGAppStartup.Builder newBuilder(ThreadPoolExecutor executor, Config config) {
+        return new DGAppStartup.Builder()
+                .setConfig(config)
+                .setLogger(new TestTask.NoLogger())
+                .setExecutorService(executor);
+    }
+
+    /**
+     * Occupy the only thread of the executor, tasks made ready meanwhile queue up and the order
+     * they then run in only depends on the ready queue.
+     * @return gate to count down once start() made the first tasks ready
+     */
+    static CountDownLatch holdWorker(ThreadPoolExecutor executor) {
+        final CountDownLatch gate = new CountDownLatch(1);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        return gate;
+    }
+}
@@ -0,0 +1,191 @@
+package com.caij.app.startup;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Configurable task for tests, every run is appended to the shared log.
+ */
+class TestTask extends Task {
+
+    private final String name;
+    private final List<String> log;
+    private List<String> dependencies;
+    private long sleepMillis;
+    private long deadlineMillis;
+    private int priority;
+    private String executionClass = EXECUTION_CPU;
+    private boolean waitOnMainThread;
+    private boolean mainThread;
+    private boolean lazy;
+    private boolean deferred;
+    private boolean enabled = true;
+    private boolean runOnlyForDependents;
+    private List<String> stages;
+    private RuntimeException failure;
+    private Object result;
+    volatile Thread runThread;
+
+    TestTask(String name, List<String> log) {
+        this.name = name;
+        this.log = log;
+    }
+
+    TestTask dependsOn(String... dependencies) {
+        this.dependencies = Arrays.asList(dependencies);
+        return this;
+    }
+
+    TestTask sleep(long sleepMillis) {
+        this.sleepMillis = sleepMillis;
+        return this;
+    }
+
+    TestTask deadline(long deadlineMillis) {
+        this.deadlineMillis = deadlineMillis;
+        return this;
+    }
+
+    TestTask priority(int priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    TestTask executionClass(String executionClass) {
+        this.executionClass = executionClass;
+        return this;
+    }
+
+    TestTask waitOnMainThread() {
+        this.waitOnMainThread = true;
+        return this;
+    }
+
+    TestTask mainThread() {
+        this.mainThread = true;
+        return this;
+    }
+
+    TestTask lazy() {
+        this.lazy = true;
+        return this;
+    }
+
+    TestTask deferred() {
+        this.deferred = true;
+        return this;
+    }
+
+    TestTask disabled() {
+        this.enabled = false;
+        return this;
+    }
+
+    TestTask onlyForDependents() {
+        this.runOnlyForDependents = true;
+        return this;
+    }
+
+    TestTask stages(String... stages) {
+        this.stages = Arrays.asList(stages);
+        return this;
+    }
+
+    TestTask fail(RuntimeException failure) {
+        this.failure = failure;
+        return this;
+    }
+
+    TestTask result(Object result) {
+        this.result = result;
+        return this;
+    }
+
+    @Override
+    public void run() {
+        runThread = Thread.currentThread();
+        if (sleepMillis > 0) {
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.add(name);
+        if (failure != null) {
+            throw failure;
+        }
+        setResult(result);
+    }
+
+    @Override
+    protected List<String> dependencies() {
+        return dependencies;
+    }
+
+    @Override
+    public String getTaskName() {
+        return name;
+    }
+
+    @Override
+    public boolean isWaitOnMainThread() {
+        return waitOnMainThread;
+    }
+
+    @Override
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public String getExecutionClass() {
+        return executionClass;
+    }
+
+    @Override
+    public boolean isMustRunMainThread() {
+        return mainThread;
+    }
+
+    @Override
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    @Override
+    public boolean isDeferred() {
+        return deferred;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean runOnlyForDependents() {
+        return runOnlyForDependents;
+    }
+
+    @Override
+    protected List<String> stages() {
+        return stages;
+    }
+
+    static class NoLogger implements Logger {
+
+        @Override
+        public void e(String tag, String msg, Throwable e) {
+        }
+
+        @Override
+        public void d(String tag, String msg) {
+        }
+    }
+}
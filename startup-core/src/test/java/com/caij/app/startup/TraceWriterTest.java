@@ -0,0 +1,226 @@
+package com.caij.app.startup;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The trace of a small run parses as Chrome Trace Event JSON.
+ */
+public class TraceWriterTest {
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void write_slicesThreadNamesAndFlows() throws IOException {
+        DGAppStartup startup = new DGAppStartup.Builder()
+                .setLogger(new TestTask.NoLogger())
+                .setExecutorService(new DirectExecutor())
+                .add(new TestTask("root", log))
+                .add(new TestTask("child", log).dependsOn("root"))
+                .add(new TestTask("other", log))
+                .create();
+        startup.start();
+
+        StringWriter writer = new StringWriter();
+        new TraceWriter(null, startup.getGraph()).write(writer, startup.getMetrics());
+        Map<?, ?> trace = (Map<?, ?>) new JsonReader(writer.toString()).read();
+
+        Map<String, Map<?, ?>> slices = new HashMap<>();
+        List<Map<?, ?>> threadNames = new ArrayList<>();
+        List<Map<?, ?>> flowStarts = new ArrayList<>();
+        List<Map<?, ?>> flowEnds = new ArrayList<>();
+        for (Object value : (List<?>) trace.get("traceEvents")) {
+            Map<?, ?> event = (Map<?, ?>) value;
+            Object phase = event.get("ph");
+            if ("X".equals(phase)) {
+                slices.put((String) event.get("name"), event);
+            } else if ("M".equals(phase)) {
+                threadNames.add(event);
+            } else if ("s".equals(phase)) {
+                flowStarts.add(event);
+            } else if ("f".equals(phase)) {
+                flowEnds.add(event);
+            }
+        }
+
+        assertEquals(3, slices.size());
+        for (String name : new String[]{"root", "child", "other"}) {
+            Map<?, ?> slice = slices.get(name);
+            assertEquals(name, "task", slice.get("cat"));
+            assertTrue(name, number(slice, "dur") >= 0);
+        }
+        assertTrue(number(slices.get("child"), "ts") >= number(slices.get("root"), "ts") + number(slices.get("root"), "dur"));
+
+        // every task ran inline on this thread
+        assertEquals(1, threadNames.size());
+        assertEquals("thread_name", threadNames.get(0).get("name"));
+        assertEquals(Thread.currentThread().getName(), ((Map<?, ?>) threadNames.get(0).get("args")).get("name"));
+
+        // the only edge, root into child
+        assertEquals(1, flowStarts.size());
+        assertEquals(1, flowEnds.size());
+        Map<?, ?> flowStart = flowStarts.get(0);
+        Map<?, ?> flowEnd = flowEnds.get(0);
+        assertEquals(flowStart.get("id"), flowEnd.get("id"));
+        assertEquals("e", flowEnd.get("bp"));
+        assertEquals(number(slices.get("child"), "ts"), number(flowEnd, "ts"), 0.0005);
+        assertTrue(number(flowStart, "ts") <= number(flowEnd, "ts"));
+    }
+
+    private static double number(Map<?, ?> event, String key) {
+        return (Double) event.get(key);
+    }
+
+    /**
+     * Just enough JSON for the trace: objects, arrays, strings, numbers and literals.
+     */
+    private static final class JsonReader {
+
+        private final String json;
+        private int position;
+
+        JsonReader(String json) {
+            this.json = json;
+        }
+
+        Object read() {
+            Object value = readValue();
+            skipWhitespace();
+            if (position != json.length()) {
+                throw new IllegalStateException("trailing data at " + position);
+            }
+            return value;
+        }
+
+        private Object readValue() {
+            skipWhitespace();
+            char c = json.charAt(position);
+            if (c == '{') {
+                return readObject();
+            } else if (c == '[') {
+                return readArray();
+            } else if (c == '"') {
+                return readString();
+            } else if (json.startsWith("true", position)) {
+                position += 4;
+                return Boolean.TRUE;
+            } else if (json.startsWith("false", position)) {
+                position += 5;
+                return Boolean.FALSE;
+            } else if (json.startsWith("null", position)) {
+                position += 4;
+                return null;
+            }
+            int start = position;
+            while (position < json.length() && "+-.eE0123456789".indexOf(json.charAt(position)) >= 0) {
+                position++;
+            }
+            return Double.parseDouble(json.substring(start, position));
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (json.charAt(position) == '}') {
+                position++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = readString();
+                skipWhitespace();
+                expect(':');
+                object.put(key, readValue());
+                skipWhitespace();
+                if (json.charAt(position) == '}') {
+                    position++;
+                    return object;
+                }
+                expect(',');
+            }
+        }
+
+        private List<Object> readArray() {
+            List<Object> array = new ArrayList<>();
+            expect('[');
+            skipWhitespace();
+            if (json.charAt(position) == ']') {
+                position++;
+                return array;
+            }
+            while (true) {
+                array.add(readValue());
+                skipWhitespace();
+                if (json.charAt(position) == ']') {
+                    position++;
+                    return array;
+                }
+                expect(',');
+            }
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder builder = new StringBuilder();
+            while (true) {
+                char c = json.charAt(position++);
+                if (c == '"') {
+                    return builder.toString();
+                }
+                if (c == '\\') {
+                    char escaped = json.charAt(position++);
+                    switch (escaped) {
+                        case 'n':
+                            builder.append('\n');
+                            break;
+                        case 't':
+                            builder.append('\t');
+                            break;
+                        case 'r':
+                            builder.append('\r');
+                            break;
+                        case 'b':
+                            builder.append('\b');
+                            break;
+                        case 'f':
+                            builder.append('\f');
+                            break;
+                        case 'u':
+                            builder.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                            position += 4;
+                            break;
+                        default:
+                            builder.append(escaped);
+                    }
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+
+        private void expect(char c) {
+            if (json.charAt(position) != c) {
+                throw new IllegalStateException("expected " + c + " at " + position);
+            }
+            position++;
+        }
+
+        private void skipWhitespace() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
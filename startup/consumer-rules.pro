@@ -0,0 +1,2 @@
+# found by name in Platform.get()
+-keep class com.caij.app.startup.AndroidPlatform { <init>(); }
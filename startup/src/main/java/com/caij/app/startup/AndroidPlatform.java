@@ -0,0 +1,50 @@
+package com.caij.app.startup;
+
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Looked up by {@link Platform#get()}, keep the name and the no-arg constructor.
+ */
+public class AndroidPlatform extends Platform {
+
+    private static final Clock CLOCK = new Clock() {
+        @Override
+        public long uptimeMillis() {
+            return SystemClock.uptimeMillis();
+        }
+    };
+
+    @Override
+    public Clock getClock() {
+        return CLOCK;
+    }
+
+    @Override
+    public Logger createLogger() {
+        return new Logger() {
+            @Override
+            public void e(String tag, String msg, Throwable e) {
+                Log.e(tag, msg, e);
+            }
+
+            @Override
+            public void d(String tag, String msg) {
+                Log.d(tag, msg);
+            }
+        };
+    }
+
+    @Override
+    public Executor createMainThreadExecutor() {
+        return new HandlerExecutor(Looper.getMainLooper());
+    }
+
+    @Override
+    public IdleScheduler createIdleScheduler() {
+        return new LooperIdleScheduler(Looper.getMainLooper());
+    }
+}
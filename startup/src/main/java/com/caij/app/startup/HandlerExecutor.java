@@ -0,0 +1,24 @@
+package com.caij.app.startup;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Posts to the main looper, used for main thread tasks left after {@link DGAppStartup#start()}
+ * returned.
+ */
+class HandlerExecutor implements Executor {
+
+    private final Handler handler;
+
+    HandlerExecutor(Looper looper) {
+        this.handler = new Handler(looper);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        handler.post(command);
+    }
+}
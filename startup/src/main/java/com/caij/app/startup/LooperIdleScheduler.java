@@ -0,0 +1,50 @@
+package com.caij.app.startup;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.Choreographer;
+
+/**
+ * The first callback waits for the next frame, every callback then waits for an idle looper.
+ */
+class LooperIdleScheduler implements IdleScheduler {
+
+    private final Handler handler;
+    private boolean frameDrawn;
+
+    LooperIdleScheduler(Looper looper) {
+        this.handler = new Handler(looper);
+    }
+
+    @Override
+    public void scheduleIdle(final Runnable callback) {
+        // Choreographer and the message queue of the looper are only reachable on its thread
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (frameDrawn) {
+                    addIdleHandler(callback);
+                    return;
+                }
+                Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        frameDrawn = true;
+                        addIdleHandler(callback);
+                    }
+                });
+            }
+        });
+    }
+
+    private void addIdleHandler(final Runnable callback) {
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                callback.run();
+                return false;
+            }
+        });
+    }
+}